@@ -0,0 +1,52 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.RoleBasedAccessControlApplication;
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.service.UserService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/*
+ * This class starts the application context (with its in-memory H2 database) for benchmarks that need real beans.
+ * No web server is started; benchmarks call the beans directly.
+ */
+final class BenchmarkApplication {
+    static final String EMAIL = "benchmark@example.com";
+    static final String PASSWORD = "benchmark-password";
+
+    private BenchmarkApplication() {
+    }
+
+    // Starts the application context with the given extra properties (e.g. "--my.jwt.role-claims.enabled=true").
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] args = Stream.concat(
+                Stream.of("--spring.main.banner-mode=off", "--logging.level.root=WARN",
+                        // Keeping the database open until the context is closed by the benchmark's tear down.
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE"),
+                Stream.of(properties)).toArray(String[]::new);
+
+        return new SpringApplicationBuilder(RoleBasedAccessControlApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args);
+    }
+
+    // Registers the benchmark user, with the USER and MODERATOR roles, and returns a freshly issued token for it.
+    static String registerAndLogin(ConfigurableApplicationContext context) {
+        UserService userService = context.getBean(UserService.class);
+
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername("benchmark");
+        userDTO.setEmail(EMAIL);
+        userDTO.setPassword(PASSWORD);
+        userDTO.setRoles(Set.of(Role.USER, Role.MODERATOR));
+        userService.registerUser(userDTO);
+
+        return userService.authenticate(EMAIL, PASSWORD).getAccessToken();
+    }
+}
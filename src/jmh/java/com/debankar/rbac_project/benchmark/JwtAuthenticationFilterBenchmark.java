@@ -0,0 +1,60 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.security.JwtAuthenticationFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This benchmark measures a full pass of JwtAuthenticationFilter for a request carrying a valid bearer token,
+ * with the filter wired to the real application beans and mock servlet objects.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+    @Param({"false", "true"})
+    private boolean roleClaims;
+
+    private ConfigurableApplicationContext context;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain filterChain = (request, response) -> { };
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("--my.jwt.role-claims.enabled=" + roleClaims);
+        String token = BenchmarkApplication.registerAndLogin(context);
+        filter = context.getBean(JwtAuthenticationFilter.class);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, filterChain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.security.JwtTokenProvider;
+import com.debankar.rbac_project.security.SigningKeyring;
+import com.debankar.rbac_project.security.VerifiedToken;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This benchmark measures token signing and verification throughput for each signature algorithm of the keyring:
+ * HMAC (HS256), ECDSA on P-256 (ES256) and EdDSA on Ed25519. The asymmetric algorithms let other services verify tokens
+ * with the published public keys, at the cost measured here.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtSigningBenchmark {
+    @Param({"HS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() throws IOException {
+        Jwk<?> key = switch (algorithm) {
+            case "HS256" -> Jwks.builder().key(Jwts.SIG.HS256.key().build()).id("benchmark").algorithm(algorithm).build();
+            case "ES256" -> Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("benchmark").algorithm(algorithm).build();
+            default -> Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build()).id("benchmark").algorithm(algorithm).build();
+        };
+
+        // The keyring reads its keys from a JWK Set file, as in production.
+        Path keysFile = Files.createTempFile("jwks", ".json");
+        keysFile.toFile().deleteOnExit();
+        Files.writeString(keysFile, "{\"keys\":[" + Jwks.UNSAFE_JSON(key) + "]}");
+
+        SigningKeyring signingKeyring = new SigningKeyring("unused", keysFile.toString(), Duration.ofMinutes(5));
+        jwtTokenProvider = new JwtTokenProvider(signingKeyring, false, Duration.ofMinutes(5), Duration.ofDays(7));
+
+        user = new User("benchmark", BenchmarkApplication.EMAIL, "password", Set.of(Role.USER, Role.MODERATOR));
+        user.setId(1L);
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtTokenProvider.verify(token);
+    }
+}
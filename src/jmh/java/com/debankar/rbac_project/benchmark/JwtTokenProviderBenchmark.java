@@ -0,0 +1,59 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.security.JwtTokenProvider;
+import com.debankar.rbac_project.security.SigningKeyring;
+import com.debankar.rbac_project.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This benchmark measures token generation and verification in JwtTokenProvider.
+ * "validateThenExtractUsername" is the two-parse sequence the authentication filter used before verify() existed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+    @Param({"false", "true"})
+    private boolean roleClaims;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtTokenProvider = new JwtTokenProvider(
+                new SigningKeyring("8%BEsP[.q78<+%W)c8aYS>;nQ)GOrp^`", "", Duration.ofMinutes(5)), roleClaims,
+                Duration.ofMinutes(5), Duration.ofDays(7));
+
+        user = new User("benchmark", BenchmarkApplication.EMAIL, "password", Set.of(Role.USER, Role.MODERATOR));
+        user.setId(1L);
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtTokenProvider.verify(token);
+    }
+
+    @Benchmark
+    public void validateThenExtractUsername(Blackhole blackhole) {
+        blackhole.consume(jwtTokenProvider.validateToken(token));
+        blackhole.consume(jwtTokenProvider.extractUsername(token));
+    }
+}
@@ -0,0 +1,54 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.security.LoginThrottle;
+import com.debankar.rbac_project.security.RateLimiter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This benchmark measures LoginThrottle.acquire for attempts under the limit, the overhead it adds to every login.
+ * It runs with 4 threads, spread over a small or a large number of distinct emails and client IPs; compare it with
+ * PasswordEncoderBenchmark.matches, the cost of the login itself.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoginThrottleBenchmark {
+    @Param({"16", "10000"})
+    private int distinctKeys;
+
+    private LoginThrottle loginThrottle;
+    private String[] emails;
+    private String[] clientIps;
+
+    @Setup
+    public void setup() {
+        // Limits high enough that no attempt is rejected, so only the bookkeeping is measured.
+        loginThrottle = new LoginThrottle(
+                new RateLimiter(Integer.MAX_VALUE, Duration.ofMinutes(1), 100_000, Ticker.systemTicker()),
+                new RateLimiter(Integer.MAX_VALUE, Duration.ofMinutes(1), 100_000, Ticker.systemTicker()),
+                new SimpleMeterRegistry());
+
+        emails = new String[distinctKeys];
+        clientIps = new String[distinctKeys];
+        for (int i = 0; i < distinctKeys; i++) {
+            emails[i] = "user" + i + "@mail.com";
+            clientIps[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public void acquire() {
+        int i = ThreadLocalRandom.current().nextInt(distinctKeys);
+        loginThrottle.acquire(emails[i], clientIps[i]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.enums.Permission;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.security.PermissionAuthorizationManager;
+import com.debankar.rbac_project.security.RequiresPermission;
+import com.debankar.rbac_project.security.RoleAuthorities;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * This benchmark measures a method-level authorization check with PermissionAuthorizationManager (a comparison of
+ * precomputed permission bitsets) and with Spring Security's PreAuthorizeAuthorizationManager, which evaluates a SpEL
+ * expression against the caller's authorities on each call. Run with "-prof gc" to compare their allocations as well.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermissionCheckBenchmark {
+    @Param({"bitset", "preAuthorize"})
+    private String implementation;
+
+    private AuthorizationManager<MethodInvocation> authorizationManager;
+    // The caller's authorities are the shared role authorities, as set by JwtAuthenticationFilter.
+    private final Supplier<Authentication> authentication = () -> new UsernamePasswordAuthenticationToken(
+            BenchmarkApplication.EMAIL, null, RoleAuthorities.of(List.of(Role.USER, Role.MODERATOR)));
+    private MethodInvocation invocation;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        authorizationManager = implementation.equals("bitset")
+                ? new PermissionAuthorizationManager()
+                : new PreAuthorizeAuthorizationManager();
+        ModeratedResource target = new ModeratedResource();
+        invocation = new SimpleMethodInvocation(target, ModeratedResource.class.getMethod(
+                implementation.equals("bitset") ? "moderate" : "moderateWithExpression"));
+    }
+
+    @Benchmark
+    public AuthorizationResult authorize() {
+        return authorizationManager.authorize(authentication, invocation);
+    }
+
+    // The guarded methods, with equivalent access rules: MODERATOR and ADMIN are the roles granting content:moderate.
+    public static class ModeratedResource {
+        @RequiresPermission(Permission.CONTENT_MODERATE)
+        public void moderate() {
+        }
+
+        @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+        public void moderateWithExpression() {
+        }
+    }
+}
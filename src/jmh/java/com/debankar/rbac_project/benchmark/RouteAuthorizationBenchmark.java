@@ -0,0 +1,88 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.security.RouteAuthorizationManager;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * This benchmark measures an authorization check against route tables of growing size, with RouteAuthorizationManager
+ * (one walk of the route tree) and with Spring Security's ordered chain of request matchers, as configured by
+ * requestMatchers(...).hasAnyRole(...), which tries the rules one by one.
+ * The table holds one "/api/v1/resource{i}/**" rule per resource. "firstRoute" requests the first resource of the
+ * table and "lastRoute" the last one, the best and worst cases of the matcher chain.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteAuthorizationBenchmark {
+    private static final Role[] ROLES = Role.values();
+
+    @Param({"10", "100", "1000"})
+    private int routes;
+
+    @Param({"trie", "matcherChain"})
+    private String implementation;
+
+    private AuthorizationManager<HttpServletRequest> authorizationManager;
+    private final Supplier<Authentication> authentication = () -> new UsernamePasswordAuthenticationToken(
+            BenchmarkApplication.EMAIL, null, AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_MODERATOR"));
+    private HttpServletRequest firstRoute;
+    private HttpServletRequest lastRoute;
+
+    @Setup
+    public void setup() {
+        if (implementation.equals("trie")) {
+            RouteAuthorizationManager.Builder builder = RouteAuthorizationManager.builder();
+            for (int i = 0; i < routes; i++) {
+                builder.hasAnyRole("/api/v1/resource" + i + "/**", ROLES[i % ROLES.length]);
+            }
+            // Wrapped like the matcher chain wraps its rules, which also creates a context per check.
+            RouteAuthorizationManager routeAuthorizationManager = builder.build();
+            authorizationManager = (authentication, request) ->
+                    routeAuthorizationManager.authorize(authentication, new RequestAuthorizationContext(request));
+        } else {
+            RequestMatcherDelegatingAuthorizationManager.Builder builder = RequestMatcherDelegatingAuthorizationManager.builder();
+            for (int i = 0; i < routes; i++) {
+                builder.add(new AntPathRequestMatcher("/api/v1/resource" + i + "/**"),
+                        AuthorityAuthorizationManager.hasAnyRole(ROLES[i % ROLES.length].name()));
+            }
+            authorizationManager = builder.build();
+        }
+
+        firstRoute = request("/api/v1/resource0/items/42");
+        lastRoute = request("/api/v1/resource" + (routes - 1) + "/items/42");
+    }
+
+    @Benchmark
+    public AuthorizationResult firstRoute() {
+        return authorizationManager.authorize(authentication, firstRoute);
+    }
+
+    @Benchmark
+    public AuthorizationResult lastRoute() {
+        return authorizationManager.authorize(authentication, lastRoute);
+    }
+
+    private static HttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServletPath(uri);    // Set by the servlet container; read by the path matchers.
+        return request;
+    }
+}
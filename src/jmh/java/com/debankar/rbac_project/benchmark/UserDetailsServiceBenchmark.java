@@ -0,0 +1,46 @@
+package com.debankar.rbac_project.benchmark;
+
+import com.debankar.rbac_project.service.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This benchmark measures CustomUserDetailsService.loadUserByUsername against the in-memory H2 database.
+ * With "cached" set to false the cache entry is evicted before every call, so each call runs the database query.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDetailsServiceBenchmark {
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailsService userDetailsService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.registerAndLogin(context);
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        if (!cached) {
+            userDetailsService.evict(BenchmarkApplication.EMAIL);
+        }
+        return userDetailsService.loadUserByUsername(BenchmarkApplication.EMAIL);
+    }
+}
@@ -0,0 +1,82 @@
+package com.debankar.rbac_project.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This class records the latencies and response statuses of the requests sent to one endpoint.
+ * Latencies are recorded in microseconds in an HdrHistogram, with 3 significant digits up to one minute, so that tail
+ * percentiles (p99, p99.9) are exact to 0.1% whatever the number of requests. Each client has its own instances, which
+ * are merged at the end of the run.
+ */
+public final class EndpointStats {
+    // Status recorded for requests that got no response (e.g. timeout, connection refused).
+    public static final int NO_RESPONSE = 0;
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram latencies = new Histogram(MAX_LATENCY_MICROS, 3);
+    // Number of responses by status code.
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+
+    public void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        statuses.merge(status, 1L, Long::sum);
+    }
+
+    public void merge(EndpointStats other) {
+        latencies.add(other.latencies);
+        other.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+    }
+
+    public long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    // Returns the number of requests without a 2xx response.
+    public long getFailures() {
+        return statuses.entrySet().stream()
+                .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+
+    // Returns the number of responses with the given status.
+    public long getStatusCount(int status) {
+        return statuses.getOrDefault(status, 0L);
+    }
+
+    public double getThroughput(Duration duration) {
+        return getRequests() / (duration.toNanos() / 1e9);
+    }
+
+    // Returns the latency at the given percentile (e.g. 99.9), in milliseconds.
+    public double getLatencyMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    public double getMaxLatencyMillis() {
+        return latencies.getMaxValue() / 1e3;
+    }
+
+    // Returns the results as a map of plain values, for the JSON report.
+    public Map<String, Object> toMap(Duration duration) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", getRequests());
+        result.put("failures", getFailures());
+        result.put("throughput", getThroughput(duration));
+        result.put("statuses", statuses);
+        Map<String, Object> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("p50", getLatencyMillis(50));
+        latencyMillis.put("p99", getLatencyMillis(99));
+        latencyMillis.put("p999", getLatencyMillis(99.9));
+        latencyMillis.put("max", getMaxLatencyMillis());
+        result.put("latencyMillis", latencyMillis);
+        return result;
+    }
+}
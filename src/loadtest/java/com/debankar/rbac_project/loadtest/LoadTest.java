@@ -0,0 +1,297 @@
+package com.debankar.rbac_project.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * This class is a closed-loop HTTP load generator for a running instance of the application.
+ * Before the run, it registers one account per role, whose tokens are used by the bearer-token operations, and a pool
+ * of USER accounts for logins and logouts (a login revokes the account's earlier tokens, so the two sets are kept
+ * apart). It then keeps "concurrency" clients sending requests drawn from the traffic "mix" (see TrafficMix) for
+ * "duration", after a warm-up, and reports the throughput and the p50/p99/p99.9 latencies of each endpoint, on
+ * standard output and as JSON in the "output" file.
+ *
+ * Options (--name=value): base-url, mix, concurrency, duration, warmup, accounts, output.
+ * The application should run with the "loadtest" Spring profile: access tokens are obtained once, so the duration must
+ * stay within their validity (my.jwt.access-token-validity), and under the default login throttle (my.login-throttle)
+ * most logins get 429. A run where they do is reported with a warning, as its login results measure the throttle.
+ */
+public class LoadTest {
+    private static final String PASSWORD = "loadtest-password";
+    private static final String TOKEN_PREFIX = "JWT Token: ";
+    // Share of logins throttled with 429 above which the results are reported as measuring the throttle.
+    private static final double MAX_THROTTLED_LOGIN_SHARE = 0.05;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    // The access token of the account of each bearer-token operation.
+    private final Map<Operation, String> bearerTokens = new EnumMap<>(Operation.class);
+    // The emails of the login pool.
+    private final List<String> loginAccounts = new ArrayList<>();
+
+    private LoadTest(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String mixSpec = options.getOrDefault("mix", "mixed");
+        TrafficMix mix = TrafficMix.parse(mixSpec);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT30S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT5S"));
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "20"));
+        String output = options.getOrDefault("output", "target/loadtest-result.json");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LoadTest loadTest = new LoadTest(client, baseUrl);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        loadTest.setUp(mix, accounts, clients);
+
+        System.out.printf("Running %d clients with the mix %s for %s (after a %s warm-up)%n",
+                concurrency, mix.getWeights(), duration, warmup);
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        List<Future<Map<Operation, EndpointStats>>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> loadTest.runClient(mix, measureFrom, measureUntil)));
+        }
+
+        Map<Operation, EndpointStats> total = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, EndpointStats>> future : futures) {
+            future.get().forEach((operation, stats) ->
+                    total.computeIfAbsent(operation, o -> new EndpointStats()).merge(stats));
+        }
+        clients.shutdown();
+
+        report(total, duration);
+        warnIfLoginsThrottled(total.get(Operation.LOGIN));
+        if (!output.isEmpty()) {
+            writeJson(Path.of(output), mixSpec, mix, concurrency, duration, total);
+            System.out.println("Results written to " + output);
+        }
+    }
+
+    // Registers the accounts the mix needs, in parallel, and logs in the bearer-token accounts.
+    private void setUp(TrafficMix mix, int accounts, ExecutorService executor) throws Exception {
+        Map<Operation, Future<String>> bearerEmails = new EnumMap<>(Operation.class);
+        for (Operation operation : List.of(Operation.USER, Operation.MODERATOR, Operation.ADMIN)) {
+            if (mix.includes(operation)) {
+                bearerEmails.put(operation, executor.submit(() -> registerAccount(operation.name())));
+            }
+        }
+        List<Callable<String>> loginPool = new ArrayList<>();
+        if (mix.includes(Operation.LOGIN) || mix.includes(Operation.LOGOUT)) {
+            for (int i = 0; i < accounts; i++) {
+                loginPool.add(() -> registerAccount("USER"));
+            }
+        }
+        for (Future<String> email : executor.invokeAll(loginPool)) {
+            loginAccounts.add(email.get());
+        }
+        for (Map.Entry<Operation, Future<String>> entry : bearerEmails.entrySet()) {
+            HttpResponse<String> login = login(entry.getValue().get());
+            bearerTokens.put(entry.getKey(), extractToken(login));
+        }
+    }
+
+    // Sends requests back to back until the end of the run, recording those completed in the measurement window.
+    private Map<Operation, EndpointStats> runClient(TrafficMix mix, long measureFrom, long measureUntil) {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < measureUntil) {
+            Operation operation = mix.next(random);
+            if (operation == Operation.LOGOUT) {
+                // The token to revoke comes from a fresh login, recorded as such
+                HttpResponse<String> login = send(Operation.LOGIN, this::randomLogin, stats, measureFrom, measureUntil);
+                String token = login != null && login.statusCode() == 200 ? extractToken(login) : null;
+                if (token != null) {
+                    send(Operation.LOGOUT, () -> logoutRequest(token), stats, measureFrom, measureUntil);
+                }
+            } else {
+                send(operation, () -> request(operation), stats, measureFrom, measureUntil);
+            }
+        }
+        return stats;
+    }
+
+    /*
+     * Sends a request of the given operation and returns its response, or null if there was none. Its latency and
+     * status are recorded if it completed within the measurement window.
+     */
+    private HttpResponse<String> send(Operation operation, Callable<HttpRequest> request,
+                                      Map<Operation, EndpointStats> stats, long measureFrom, long measureUntil) {
+        long startNanos = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.call(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            response = null;
+        }
+
+        long endNanos = System.nanoTime();
+        if (startNanos >= measureFrom && endNanos <= measureUntil) {
+            stats.computeIfAbsent(operation, o -> new EndpointStats())
+                    .record(endNanos - startNanos, response != null ? response.statusCode() : EndpointStats.NO_RESPONSE);
+        }
+        return response;
+    }
+
+    // Builds the request of a bearer-token, login or registration operation.
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case USER -> bearerRequest("/api/v1/user", bearerTokens.get(operation));
+            case MODERATOR -> bearerRequest("/api/v1/moderator", bearerTokens.get(operation));
+            case ADMIN -> bearerRequest("/api/v1/admin", bearerTokens.get(operation));
+            case LOGIN -> randomLogin();
+            case REGISTER -> registrationRequest(newEmail(), "USER");
+            case LOGOUT -> throw new IllegalArgumentException("A logout needs a token from a login first");
+        };
+    }
+
+    private HttpRequest bearerRequest(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    private HttpRequest logoutRequest(String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/public/logout"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest randomLogin() {
+        return loginRequest(loginAccounts.get(ThreadLocalRandom.current().nextInt(loginAccounts.size())));
+    }
+
+    private HttpRequest loginRequest(String email) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/public/login?email="
+                        + URLEncoder.encode(email, StandardCharsets.UTF_8) + "&password=" + PASSWORD))
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest registrationRequest(String email, String role) {
+        String body = "{\"username\":\"loadtest\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+                + "\",\"roles\":[\"" + role + "\"]}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/public/register"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // Registers a fresh account with the given role and returns its email.
+    private String registerAccount(String role) throws Exception {
+        String email = newEmail();
+        HttpResponse<String> registration = client.send(registrationRequest(email, role),
+                HttpResponse.BodyHandlers.ofString());
+        if (registration.statusCode() != 201) {
+            throw new IllegalStateException("Registration failed with status " + registration.statusCode());
+        }
+        return email;
+    }
+
+    private HttpResponse<String> login(String email) throws Exception {
+        return client.send(loginRequest(email), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String newEmail() {
+        return "loadtest-" + UUID.randomUUID() + "@mail.com";
+    }
+
+    // Returns the access token of a login response.
+    private static String extractToken(HttpResponse<String> login) {
+        return login.body().lines()
+                .filter(line -> line.startsWith(TOKEN_PREFIX))
+                .map(line -> line.substring(TOKEN_PREFIX.length()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Login failed with status " + login.statusCode()
+                        + ": " + login.body()));
+    }
+
+    private static void report(Map<Operation, EndpointStats> total, Duration duration) {
+        System.out.printf("%-30s %10s %8s %10s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Failed", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        total.forEach((operation, stats) -> System.out.printf("%-30s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                operation.getEndpoint(), stats.getRequests(), stats.getFailures(), stats.getThroughput(duration),
+                stats.getLatencyMillis(50), stats.getLatencyMillis(99), stats.getLatencyMillis(99.9),
+                stats.getMaxLatencyMillis()));
+    }
+
+    // Warns on standard error if many logins were throttled, i.e. if the application runs without the loadtest profile.
+    private static void warnIfLoginsThrottled(EndpointStats logins) {
+        if (logins == null || logins.getRequests() == 0) {
+            return;
+        }
+        long throttled = logins.getStatusCount(429);
+        if (throttled > logins.getRequests() * MAX_THROTTLED_LOGIN_SHARE) {
+            System.err.printf("%nWARNING: %d of %d logins (%.0f%%) were throttled with 429, so the login results measure "
+                            + "the login throttle. Start the application with the \"loadtest\" Spring profile.%n",
+                    throttled, logins.getRequests(), 100.0 * throttled / logins.getRequests());
+        }
+    }
+
+    private static void writeJson(Path path, String mixSpec, TrafficMix mix, int concurrency, Duration duration,
+                                  Map<Operation, EndpointStats> total) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", Instant.now().toString());
+        result.put("mix", mixSpec);
+        result.put("weights", mix.getWeights());
+        result.put("concurrency", concurrency);
+        result.put("durationSeconds", duration.toNanos() / 1e9);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        total.forEach((operation, stats) -> endpoints.put(operation.getEndpoint(), stats.toMap(duration)));
+        result.put("endpoints", endpoints);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), result);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,25 @@
+package com.debankar.rbac_project.loadtest;
+
+/*
+ * This enum lists the operations the load generator can send, each recorded as its own endpoint in the results.
+ * The bearer operations use a token obtained before the run; LOGOUT first logs in to get a token to revoke, and that
+ * login is recorded under LOGIN.
+ */
+public enum Operation {
+    USER("GET /api/v1/user"),               // Bearer-token request of a USER account
+    MODERATOR("GET /api/v1/moderator"),     // Bearer-token request of a MODERATOR account
+    ADMIN("GET /api/v1/admin"),             // Bearer-token request of an ADMIN account
+    LOGIN("POST /api/v1/public/login"),     // Login of an account of the login pool
+    LOGOUT("POST /api/v1/public/logout"),   // Login of an account of the login pool, then logout of the new token
+    REGISTER("POST /api/v1/public/register");   // Registration of a new USER account
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,193 @@
+package com.debankar.rbac_project.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This class measures how fast a new instance of the application can serve authenticated traffic, in each startup mode
+ * of the fast-startup build (see the fast-startup Maven profile, which must have been built first):
+ * - jar: the executable jar, as built by default;
+ * - extracted: the jar extracted to target/fast-startup, whose classes load faster from plain jars;
+ * - aot: the extracted jar, with the bean definitions generated at build time (spring.aot.enabled);
+ * - aot-cds: the same, with the classes mapped from the AppCDS archive dumped by the training run.
+ * Each run starts the application in a new JVM and, as soon as its port accepts connections, registers a user, logs
+ * it in and sends an authenticated GET /api/v1/user. It records the time from the start of the JVM to the first
+ * response, and to the first successful authenticated response, then stops the application.
+ *
+ * Options (--name=value): jar, fast-startup-dir, modes, runs, port, output.
+ */
+public class StartupBenchmark {
+    private static final String EMAIL = "startup@mail.com";
+    private static final String PASSWORD = "startup-password";
+    private static final String TOKEN_PREFIX = "JWT Token: ";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        Path jar = Path.of(options.getOrDefault("jar", "target/rbac-project-0.0.1-SNAPSHOT.jar"));
+        Path fastStartupDir = Path.of(options.getOrDefault("fast-startup-dir", "target/fast-startup"));
+        List<String> modes = List.of(options.getOrDefault("modes", "jar,extracted,aot,aot-cds").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int port = Integer.parseInt(options.getOrDefault("port", "18090"));
+        String output = options.getOrDefault("output", "target/startup-result.json");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%-10s %16s %16s %26s %26s%n",
+                "Mode", "Ready ms (p50)", "Ready ms (min)", "Authenticated ms (p50)", "Authenticated ms (min)");
+        for (String mode : modes) {
+            List<String> command = command(mode.trim(), jar, fastStartupDir, port);
+            long[] readyMillis = new long[runs];
+            long[] authenticatedMillis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                long[] timings = measure(client, command, port);
+                readyMillis[run] = timings[0];
+                authenticatedMillis[run] = timings[1];
+            }
+            Arrays.sort(readyMillis);
+            Arrays.sort(authenticatedMillis);
+            System.out.printf("%-10s %16d %16d %26d %26d%n", mode, median(readyMillis), readyMillis[0],
+                    median(authenticatedMillis), authenticatedMillis[0]);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("command", command);
+            result.put("readyMillis", readyMillis);
+            result.put("authenticatedMillis", authenticatedMillis);
+            result.put("readyMillisP50", median(readyMillis));
+            result.put("authenticatedMillisP50", median(authenticatedMillis));
+            results.put(mode, result);
+        }
+
+        if (!output.isEmpty()) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("runs", runs);
+            report.put("modes", results);
+            Path path = Path.of(output);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+            System.out.println("Results written to " + output);
+        }
+    }
+
+    // Returns the command starting the application in the given mode.
+    private static List<String> command(String mode, Path jar, Path fastStartupDir, int port) {
+        Path extractedJar = fastStartupDir.resolve(jar.getFileName());
+        List<String> command = new ArrayList<>(List.of("java"));
+        switch (mode) {
+            case "jar" -> command.addAll(List.of("-jar", jar.toString()));
+            case "extracted" -> command.addAll(List.of("-jar", extractedJar.toString()));
+            case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+            case "aot-cds" -> command.addAll(List.of(
+                    "-XX:SharedArchiveFile=" + fastStartupDir.resolve("application.jsa"),
+                    "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.add("--server.port=" + port);
+        return command;
+    }
+
+    /*
+     * Starts the application, and returns the milliseconds from its start to its first response and to its first
+     * successful authenticated response. The application is stopped before returning.
+     */
+    private static long[] measure(HttpClient client, List<String> command, int port) throws Exception {
+        String baseUrl = "http://localhost:" + port + "/api/v1";
+        long startNanos = System.nanoTime();
+        Process application = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            HttpResponse<String> registration = awaitFirstResponse(client, application, baseUrl, startNanos);
+            long readyNanos = System.nanoTime();
+            if (registration.statusCode() != 201) {
+                throw new IllegalStateException("Registration failed with status " + registration.statusCode());
+            }
+
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(
+                            URI.create(baseUrl + "/public/login?email=" + EMAIL + "&password=" + PASSWORD))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            String token = login.body().lines()
+                    .filter(line -> line.startsWith(TOKEN_PREFIX))
+                    .map(line -> line.substring(TOKEN_PREFIX.length()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Login failed: " + login.body()));
+
+            HttpResponse<Void> authenticated = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/user"))
+                    .header("Authorization", "Bearer " + token)
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            long authenticatedNanos = System.nanoTime();
+            if (authenticated.statusCode() != 200) {
+                throw new IllegalStateException("Authenticated request failed with status " + authenticated.statusCode());
+            }
+            return new long[]{TimeUnit.NANOSECONDS.toMillis(readyNanos - startNanos),
+                    TimeUnit.NANOSECONDS.toMillis(authenticatedNanos - startNanos)};
+        } finally {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Sends the registration request until the application accepts connections, and returns its response.
+    private static HttpResponse<String> awaitFirstResponse(HttpClient client, Process application, String baseUrl,
+                                                           long startNanos) throws Exception {
+        HttpRequest registration = HttpRequest.newBuilder(URI.create(baseUrl + "/public/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"startup\",\"email\":\"" + EMAIL
+                        + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+        while (System.nanoTime() - startNanos < STARTUP_TIMEOUT.toNanos()) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("The application exited with status " + application.exitValue());
+            }
+            try {
+                return client.send(registration, HttpResponse.BodyHandlers.ofString());
+            } catch (ConnectException e) {
+                Thread.sleep(10);   // Not listening yet
+            }
+        }
+        throw new IllegalStateException("The application did not start within " + STARTUP_TIMEOUT);
+    }
+
+    private static long median(long[] sortedValues) {
+        return sortedValues[sortedValues.length / 2];
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,79 @@
+package com.debankar.rbac_project.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * This class is a weighted mix of operations, from which each client draws its next request.
+ * A mix is either the name of a preset or a list of weights, e.g. "user=60,admin=10,login=30". Weights are relative.
+ */
+public final class TrafficMix {
+    // Steady bearer-token traffic, spread over the three protected areas.
+    private static final String STEADY = "user=70,moderator=20,admin=10";
+    // Presets by name; "mixed" (the default) adds logins, logouts and registrations to steady traffic.
+    private static final Map<String, String> PRESETS = Map.of(
+            "steady", STEADY,
+            "login-storm", "login=100",
+            "churn", "logout=70,register=30",
+            "mixed", "user=60,moderator=10,admin=10,login=10,logout=5,register=5");
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private TrafficMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    // Parses a preset name or a list of weights.
+    public static TrafficMix parse(String spec) {
+        String weightList = PRESETS.getOrDefault(spec, spec);
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : weightList.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected a preset " + PRESETS.keySet()
+                        + " or operation=weight entries, got: " + spec);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in: " + spec);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("No operation has a positive weight in: " + spec);
+        }
+        return new TrafficMix(weights);
+    }
+
+    // Draws an operation, with a probability proportional to its weight.
+    public Operation next(Random random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    public boolean includes(Operation operation) {
+        return weights.containsKey(operation);
+    }
+
+    public Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+}
@@ -2,8 +2,10 @@ package com.debankar.rbac_project;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RoleBasedAccessControlApplication {
 
 	public static void main(String[] args) {
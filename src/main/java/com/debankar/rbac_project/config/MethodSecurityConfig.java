@@ -0,0 +1,24 @@
+package com.debankar.rbac_project.config;
+
+import com.debankar.rbac_project.security.PermissionAuthorizationManager;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/*
+ * This class enables method-level security, enforcing the permissions declared with RequiresPermission.
+ */
+@Configuration
+@EnableMethodSecurity
+public class MethodSecurityConfig {
+
+    // The advisor checking RequiresPermission before each call to an annotated method.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor requiresPermissionAdvisor() {
+        return PermissionAuthorizationManager.interceptor();
+    }
+}
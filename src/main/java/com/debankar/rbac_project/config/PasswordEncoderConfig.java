@@ -0,0 +1,61 @@
+package com.debankar.rbac_project.config;
+
+import com.debankar.rbac_project.security.BoundedPasswordEncoder;
+import com.debankar.rbac_project.security.PasswordHashingCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/*
+ * This class configures how passwords are hashed.
+ * Hashes are stored in a self-describing format, prefixed with the id of the algorithm (e.g. "{bcrypt}$2a$11$..."),
+ * so the algorithm or its cost can be changed without invalidating stored passwords. Hashes that use an older algorithm
+ * or a lower cost are upgraded when their user next logs in (see UserServiceImpl.authenticate).
+ */
+@Configuration
+public class PasswordEncoderConfig {
+    // Id of the algorithm used for new hashes.
+    private static final String ENCODING_ID = "bcrypt";
+
+    /*
+     * Using BCrypt hashing algorithm for password encoding, at a strength that is either configured or calibrated at
+     * startup to fit the latency budget. Hashing runs on a dedicated executor of limited size with a bounded queue
+     * (see BoundedPasswordEncoder), so a spike of logins cannot take over the request threads.
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${my.password-hashing.strength:0}") int strength,
+            @Value("${my.password-hashing.latency-budget:PT0.25S}") Duration latencyBudget,
+            @Value("${my.password-hashing.min-strength:10}") int minStrength,
+            @Value("${my.password-hashing.max-strength:14}") int maxStrength,
+            @Value("${my.password-hashing.threads:0}") int threads,
+            @Value("${my.password-hashing.queue-capacity:50}") int queueCapacity,
+            @Value("${my.password-hashing.max-wait:PT5S}") Duration maxWait,
+            @Value("${my.password-hashing.retry-after:PT1S}") Duration retryAfter) {
+        int bcryptStrength = strength > 0
+                ? strength
+                : PasswordHashingCalibrator.calibrateBCryptStrength(latencyBudget, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        // Encoders able to check stored hashes, by id. Only the ENCODING_ID one is used for new hashes.
+        Map<String, PasswordEncoder> encoders = Map.of(
+                ENCODING_ID, bcrypt,
+                "pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder(ENCODING_ID, encoders);
+        // Hashes stored before ids were added are plain BCrypt hashes; they are upgraded to the prefixed format on login.
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegatingEncoder, hashingThreads, queueCapacity, maxWait, retryAfter,
+                meterRegistry);
+    }
+}
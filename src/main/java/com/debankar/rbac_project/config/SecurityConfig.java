@@ -1,6 +1,8 @@
 package com.debankar.rbac_project.config;
 
+import com.debankar.rbac_project.enums.Role;
 import com.debankar.rbac_project.security.JwtAuthenticationFilter;
+import com.debankar.rbac_project.security.RouteAuthorizationManager;
 import com.debankar.rbac_project.service.LogoutService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,8 +13,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -37,14 +37,8 @@ public class SecurityConfig {
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http    // Authorization rules for different endpoints
-                .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("/api/v1/public/**").permitAll()       // Public endpoints that can be accessed without authentication
-                        .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")   // Admin-only endpoints
-                        .requestMatchers("/api/v1/moderator/**").hasAnyRole("MODERATOR", "ADMIN")       // Moderator and admin endpoints
-                        .requestMatchers("/api/v1/user/**").hasAnyRole("USER", "MODERATOR", "ADMIN")    // User, moderator, and admin endpoints
-                        .anyRequest().authenticated()   // All other requests require authentication
-                );
+        http    // Authorization rules for different endpoints, compiled into a route tree checked once per request
+                .authorizeHttpRequests(authz -> authz.anyRequest().access(routeAuthorizationManager()));
         http    // Setting session management to stateless, meaning no session will be created or used
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .csrf(csrf -> csrf.disable())   // Disabling CSRF as our services are used by non-browser clients
@@ -65,15 +59,24 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /*
+     * Defines which roles may access which endpoints. The most specific rule matching a request applies, whatever the
+     * order of the rules, and requests matching no rule require authentication.
+     */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
-        // Retrieving the default AuthenticationManager from Spring Security's configuration
-        return configuration.getAuthenticationManager();
+    public RouteAuthorizationManager routeAuthorizationManager() {
+        return RouteAuthorizationManager.builder()
+                .permitAll("/api/v1/public/**")     // Public endpoints that can be accessed without authentication
+                .hasAnyRole("/api/v1/admin/**", Role.ADMIN)     // Admin-only endpoints
+                .hasAnyRole("/api/v1/moderator/**", Role.MODERATOR, Role.ADMIN)     // Moderator and admin endpoints
+                .hasAnyRole("/api/v1/user/**", Role.USER, Role.MODERATOR, Role.ADMIN)   // User, moderator, and admin endpoints
+                .hasAnyRole("/actuator/**", Role.ADMIN)     // Health and metrics endpoints
+                .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // Using BCrypt hashing algorithm for password encoding
-        return new BCryptPasswordEncoder();
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
+        // Retrieving the default AuthenticationManager from Spring Security's configuration
+        return configuration.getAuthenticationManager();
     }
 }
\ No newline at end of file
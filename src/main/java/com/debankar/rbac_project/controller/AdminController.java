@@ -1,15 +1,56 @@
 package com.debankar.rbac_project.controller;
 
+import com.debankar.rbac_project.dto.BulkRegistrationResultDTO;
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.dto.UserDTO;
+import com.debankar.rbac_project.dto.UserPageDTO;
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Permission;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.mapper.UserMapper;
+import com.debankar.rbac_project.security.RequiresPermission;
+import com.debankar.rbac_project.service.BulkRegistrationService;
+import com.debankar.rbac_project.service.UserService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
 /*
  * This controller handles admin-specific operations. It provides endpoints for admin-related actions.
  * The controller is designed to be accessed by authenticated users whose roles contain ADMIN.
+ * Its endpoints require the system:admin permission, except the user management endpoints, which require the
+ * permission of their own operation.
  */
 @RestController
+@RequiresPermission(Permission.SYSTEM_ADMIN)
 @RequestMapping("/api/v1/admin")
 public class AdminController {
+    // UserService is injected to handle business logic related to user operations.
+    private final UserService userService;
+    // UserMapper is used to convert between User entities and UserDTOs for data transfer.
+    private final UserMapper userMapper;
+    // BulkRegistrationService handles registering many users in one request.
+    private final BulkRegistrationService bulkRegistrationService;
+    // ObjectMapper is used to read streamed (newline-delimited JSON) request bodies.
+    private final ObjectMapper objectMapper;
+
+    public AdminController(UserService userService, UserMapper userMapper,
+                           BulkRegistrationService bulkRegistrationService, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.userMapper = userMapper;
+        this.bulkRegistrationService = bulkRegistrationService;
+        this.objectMapper = objectMapper;
+    }
+
     /*
      * The following endpoints can be extended to perform actual business operations.
      * Currently, they serve as placeholders to demonstrate the structure of the controller
@@ -34,4 +75,60 @@ public class AdminController {
     public ResponseEntity<String> delete() {
         return ResponseEntity.ok("DELETE:: admin controller");
     }
+
+    /*
+     * Endpoint for listing users one page at a time, ordered by id. The first page is requested without "after";
+     * each following page is requested with the "nextCursor" of the previous page. A "limit" out of range is answered
+     * with 400 Bad Request.
+     */
+    @GetMapping("/users")
+    @RequiresPermission(Permission.USER_READ)
+    public ResponseEntity<UserPageDTO> listUsers(@RequestParam(required = false) Long after,
+                                                 @RequestParam(defaultValue = "100") @Min(1) @Max(UserService.MAX_PAGE_SIZE) int limit,
+                                                 @RequestParam(required = false) Role role) {
+        return ResponseEntity.ok(userService.findPage(after, limit, role));
+    }
+
+    // Endpoint for registering many users at once, given as a JSON array of user records.
+    @PostMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @RequiresPermission(Permission.USER_WRITE)
+    public ResponseEntity<BulkRegistrationResultDTO> registerUsers(@RequestBody List<UserCreationDTO> userDTOs) {
+        return ResponseEntity.ok(bulkRegistrationService.registerUsers(userDTOs.iterator()));
+    }
+
+    /*
+     * Endpoint for registering many users at once, given as newline-delimited JSON (one user record per line).
+     * The body is read as a stream, so only one chunk of records is held in memory at a time.
+     */
+    @PostMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequiresPermission(Permission.USER_WRITE)
+    public ResponseEntity<BulkRegistrationResultDTO> registerUsersStream(InputStream body) throws IOException {
+        try (MappingIterator<UserCreationDTO> userDTOs = objectMapper.readerFor(UserCreationDTO.class).readValues(body)) {
+            return ResponseEntity.ok(bulkRegistrationService.registerUsers(userDTOs));
+        }
+    }
+
+    // Endpoint for replacing a user's roles. Tokens previously issued to the user are revoked by the UserService.
+    @PutMapping("/users/{userId}/roles")
+    @RequiresPermission(Permission.ROLE_ASSIGN)
+    public ResponseEntity<UserDTO> updateRoles(@PathVariable Long userId, @RequestBody Set<Role> roles) {
+        User updatedUser = userService.updateRoles(userId, roles);
+        return ResponseEntity.ok(userMapper.toUserDTO(updatedUser));
+    }
+
+    // Endpoint for signing a user out everywhere, by revoking all of the user's tokens.
+    @PostMapping("/users/{userId}/sign-out")
+    @RequiresPermission(Permission.USER_WRITE)
+    public ResponseEntity<String> signOutEverywhere(@PathVariable Long userId) {
+        int revokedCount = userService.signOutEverywhere(userId);
+        return ResponseEntity.ok("Signed out user " + userId + " everywhere, revoking " + revokedCount + " refresh tokens");
+    }
+
+    // Endpoint for signing every user with the given role out everywhere, by revoking all of their tokens.
+    @PostMapping("/roles/{role}/sign-out")
+    @RequiresPermission(Permission.USER_WRITE)
+    public ResponseEntity<String> signOutRole(@PathVariable Role role) {
+        int revokedCount = userService.signOutRole(role);
+        return ResponseEntity.ok("Signed out every " + role + " everywhere, revoking " + revokedCount + " refresh tokens");
+    }
 }
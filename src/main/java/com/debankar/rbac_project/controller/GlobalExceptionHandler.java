@@ -0,0 +1,47 @@
+package com.debankar.rbac_project.controller;
+
+import com.debankar.rbac_project.security.LoginThrottledException;
+import com.debankar.rbac_project.security.PasswordHashingRejectedException;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+
+import java.util.stream.Collectors;
+
+/*
+ * This class translates exceptions thrown by the controllers into HTTP responses.
+ * It covers the cases where the server sheds load or throttles a client, which clients are expected to retry, and
+ * request parameters failing their constraints, which are answered here rather than by the error page.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // Answers a request rejected by the saturated password hashing executor with 503 and a Retry-After header.
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+
+    // Answers a login attempt over the allowed rate with 429 and a Retry-After header.
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<String> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+
+    // Answers a request whose parameters fail their constraints (e.g. @Min) with 400 and the failed constraints.
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<String> handleMethodValidation(HandlerMethodValidationException e) {
+        return ResponseEntity.badRequest()
+                .body(e.getAllErrors().stream()
+                        .map(MessageSourceResolvable::getDefaultMessage)
+                        .collect(Collectors.joining(", ")));
+    }
+}
@@ -1,13 +1,17 @@
 package com.debankar.rbac_project.controller;
 
+import com.debankar.rbac_project.enums.Permission;
+import com.debankar.rbac_project.security.RequiresPermission;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /*
  * This controller handles moderator-specific operations. It provides endpoints for moderator-related actions.
  * The controller is designed to be accessed by authenticated users whose roles contain either of MODERATOR or ADMIN.
+ * All of its endpoints require the content:moderate permission.
  */
 @RestController
+@RequiresPermission(Permission.CONTENT_MODERATE)
 @RequestMapping("/api/v1/moderator")
 public class ModeratorController {
     /*
@@ -1,12 +1,17 @@
 package com.debankar.rbac_project.controller;
 
+import com.debankar.rbac_project.dto.TokenPairDTO;
 import com.debankar.rbac_project.dto.UserCreationDTO;
 import com.debankar.rbac_project.dto.UserDTO;
 import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.mapper.UserMapper;
+import com.debankar.rbac_project.security.LoginThrottle;
+import com.debankar.rbac_project.security.SigningKeyring;
 import com.debankar.rbac_project.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,10 +26,17 @@ public class PublicController {
     private final UserService userService;
     // UserMapper is used to convert between User entities and UserDTOs for data transfer.
     private final UserMapper userMapper;
+    // LoginThrottle limits the rate of login attempts per email and per client address.
+    private final LoginThrottle loginThrottle;
+    // SigningKeyring holds the keys that sign tokens, whose public keys are published for other services.
+    private final SigningKeyring signingKeyring;
 
-    public PublicController(UserService userService, UserMapper userMapper) {
+    public PublicController(UserService userService, UserMapper userMapper, LoginThrottle loginThrottle,
+                            SigningKeyring signingKeyring) {
         this.userService = userService;
         this.userMapper = userMapper;
+        this.loginThrottle = loginThrottle;
+        this.signingKeyring = signingKeyring;
     }
 
     // Endpoint for user registration. Accepts a UserCreationDTO object containing user details.
@@ -47,19 +59,51 @@ public class PublicController {
 
     // Endpoint for authenticating users. Accepts email and password as request parameters.
     @PostMapping("/login")
-    public ResponseEntity<String> authenticateUser(@RequestParam String email, @RequestParam String password) {
+    public ResponseEntity<String> authenticateUser(@RequestParam String email, @RequestParam String password,
+                                                   HttpServletRequest request) {
+        // Rejecting attempts over the allowed rate for the email or client address before any password is hashed.
+        loginThrottle.acquire(email, request.getRemoteAddr());
+
         /*
          * The authentication process verifies the user's credentials and generates a JWT token if successful.
          * By putting this logic to the UserService, we maintain a clear separation of concerns and keep our
          * controller focused on handling HTTP requests and responses.
          */
-        String jwtToken = userService.authenticate(email, password);
+        TokenPairDTO tokens = userService.authenticate(email, password);
+        loginThrottle.succeeded(email, request.getRemoteAddr());    // Only failed attempts count against the email.
 
         /*
          * On successful authentication, we return the JWT token in the response body.
          * This token will be used by clients for subsequent requests requiring authentication, thus enabling
-         * stateless session management in our application.
+         * stateless session management in our application. It is short-lived; the refresh token returned alongside
+         * it is used to obtain a new one.
+         */
+        return ResponseEntity.ok("Authentication successful for email: " + email + formatTokens(tokens));
+    }
+
+    // Endpoint for renewing an expired JWT token. Accepts the refresh token returned by login or by a previous refresh.
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refreshToken(@RequestParam String refreshToken) {
+        /*
+         * The refresh token is single-use: it is replaced by the new refresh token returned here, and presenting it
+         * again revokes all of the user's tokens.
          */
-        return ResponseEntity.ok("Authentication successful for email: " + email + "\nJWT Token: " + jwtToken);
+        TokenPairDTO tokens = userService.refresh(refreshToken);
+
+        return ResponseEntity.ok("Token refresh successful" + formatTokens(tokens));
+    }
+
+    /*
+     * Endpoint publishing the public keys that verify JWT tokens as a JWK Set document, so that other services can
+     * verify tokens locally. HMAC keys are secret and are never published.
+     */
+    @GetMapping(value = "/jwks", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok(signingKeyring.getJwks());
+    }
+
+    // Formats the tokens of a response body, one per line.
+    private String formatTokens(TokenPairDTO tokens) {
+        return "\nJWT Token: " + tokens.getAccessToken() + "\nRefresh Token: " + tokens.getRefreshToken();
     }
 }
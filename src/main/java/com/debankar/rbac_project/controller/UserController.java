@@ -1,5 +1,7 @@
 package com.debankar.rbac_project.controller;
 
+import com.debankar.rbac_project.enums.Permission;
+import com.debankar.rbac_project.security.RequiresPermission;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -7,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
  * This controller handles user-specific operations. It provides endpoints for user-related actions.
  * The controller is designed to be accessed by authenticated users whose roles contain either of USER, MODERATOR or
  * ADMIN.
+ * Reading requires the content:read permission, and writing the content:write permission.
  */
 @RestController
 @RequestMapping("/api/v1/user")
@@ -17,21 +20,25 @@ public class UserController {
      */
 
     @GetMapping
+    @RequiresPermission(Permission.CONTENT_READ)
     public ResponseEntity<String> get() {
         return ResponseEntity.ok("GET:: user controller");
     }
 
     @PostMapping
+    @RequiresPermission(Permission.CONTENT_WRITE)
     public ResponseEntity<String> post() {
         return ResponseEntity.ok("POST:: user controller");
     }
 
     @PutMapping
+    @RequiresPermission(Permission.CONTENT_WRITE)
     public ResponseEntity<String> put() {
         return ResponseEntity.ok("PUT:: user controller");
     }
 
     @DeleteMapping
+    @RequiresPermission(Permission.CONTENT_WRITE)
     public ResponseEntity<String> delete() {
         return ResponseEntity.ok("DELETE:: user controller");
     }
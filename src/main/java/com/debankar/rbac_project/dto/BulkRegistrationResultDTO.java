@@ -0,0 +1,26 @@
+package com.debankar.rbac_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/*
+ * This class serves as a Data Transfer Object (DTO) for the outcome of a bulk registration request.
+ * It reports how many users were created, and why each of the remaining records was rejected.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkRegistrationResultDTO {
+    private int created;                    // The number of users created.
+    private List<Rejection> rejected;       // The records that were not registered, in request order.
+
+    // A record of the request that was not registered.
+    @Getter
+    @AllArgsConstructor
+    public static class Rejection {
+        private int index;          // The zero-based position of the record in the request.
+        private String email;       // The email of the record, if present.
+        private String reason;      // Why the record was rejected.
+    }
+}
@@ -0,0 +1,16 @@
+package com.debankar.rbac_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * This class serves as a Data Transfer Object (DTO) for the tokens handed out on login and on token refresh.
+ * The access token is a short-lived JWT sent with every request; the refresh token is an opaque, single-use value that
+ * is exchanged for a new pair of tokens once the access token has expired.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenPairDTO {
+    private String accessToken;     // The JWT token to send as a bearer token.
+    private String refreshToken;    // The refresh token to exchange for the next pair of tokens.
+}
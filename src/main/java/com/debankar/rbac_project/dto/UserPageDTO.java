@@ -0,0 +1,19 @@
+package com.debankar.rbac_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/*
+ * This class serves as a Data Transfer Object (DTO) for one page of a user listing.
+ * Pages are addressed by keyset: the next page is requested with the id of the last user of this page.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserDTO> users;    // The users of this page, ordered by id.
+
+    // The cursor (user id) to pass as "after" to fetch the next page, or null if this is the last page.
+    private Long nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.debankar.rbac_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * This class is a read-only projection of the scalar columns of a user, selected directly by JPQL queries.
+ * It lets user listings be built without loading managed User entities and their role collections.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummaryDTO {
+    private final Long id;            // The unique identifier of the user.
+    private final String username;    // The username of the user.
+    private final String email;       // The email address of the user.
+}
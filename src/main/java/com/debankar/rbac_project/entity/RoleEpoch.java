@@ -0,0 +1,28 @@
+package com.debankar.rbac_project.entity;
+
+import com.debankar.rbac_project.enums.Role;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * This class represents the revocation epoch of a role, mapped to the "role_epochs" table.
+ * The epoch is incremented to revoke the tokens of every user with the role at once: access tokens carry the epochs of
+ * their user's roles at issue time, and are rejected once one of them is behind (see RevocationEpochs).
+ * Roles whose tokens were never revoked have no row, which stands for epoch 0.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "role_epochs")
+public class RoleEpoch {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private Role role;
+
+    private long epoch;
+}
@@ -7,6 +7,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.HashSet;
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.Set;
 /*
  * This class represents the User entity in the application.
  * It is mapped to the "users" table in the database and contains user-related information.
+ * Users, their roles and their ids by email are cached in the second-level cache when it is enabled (see the l2cache
+ * Spring profile). The read-write strategy updates or evicts cached users on every write, so they are never stale.
  */
 @Entity
 @Getter
@@ -22,20 +28,29 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "user-emails")
 public class User {
     @Id     // Marks this field as the primary key of the entity.
-    @GeneratedValue(strategy = GenerationType.IDENTITY)     // Specifies that the primary key should be generated
-                                                            // automatically by the database.
+    /*
+     * Ids are drawn from a database sequence in pooled blocks of 50, so Hibernate knows the id of a new user before
+     * inserting it and can group many inserts into one JDBC batch (IDENTITY columns disable insert batching).
+     */
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     private String username;
 
+    // The email identifies the user (see UserNaturalIdRepository), so it is unique and never changes.
+    @NaturalId
     private String email;
 
     private String password;
 
     // Indicates that this field is a collection of elements (roles) that are stored in a separate table.
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     @Enumerated(EnumType.STRING)
     private Set<Role> roles = new HashSet<>();
 
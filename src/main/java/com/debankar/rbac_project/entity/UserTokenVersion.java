@@ -0,0 +1,28 @@
+package com.debankar.rbac_project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * This class represents the token version of a user, mapped to the "user_token_versions" table.
+ * The version is incremented to revoke every token issued to the user so far: access tokens carry the version they were
+ * issued under, and are rejected once it is behind (see RevocationEpochs). It is kept apart from the "users" table, so
+ * that advancing it on every login does not invalidate the cached users (see the l2cache Spring profile).
+ * Users whose tokens were never revoked have no row, which stands for version 0.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_token_versions")
+public class UserTokenVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private long version;
+}
@@ -2,14 +2,22 @@ package com.debankar.rbac_project.entity.token;
 
 import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.enums.TokenType;
+import com.debankar.rbac_project.security.TokenDigest;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 /*
  * This class represents the Token entity in the application.
  * It is used to manage JWT tokens associated with users, including their state (valid/expired/revoked).
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_token_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_token_expires_at", columnList = "expires_at"),  // Range scans of the purge job
+        @Index(name = "idx_token_user_revoked_expired", columnList = "user_id, revoked, expired")  // Bulk revocation
+})
 @Getter
 @Setter
 @Builder
@@ -17,15 +25,28 @@ import lombok.*;
 @AllArgsConstructor
 public class Token {
     @Id     // Marks this field as the primary key of the entity.
-    @GeneratedValue(strategy = GenerationType.IDENTITY)     // Specifies that the primary key should be generated
-    private Long id;                                        // automatically by the database.
+    // Ids are drawn from a database sequence in pooled blocks of 50, which allows inserts to be batched.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_seq")
+    @SequenceGenerator(name = "token_seq", sequenceName = "token_seq", allocationSize = 50)
+    private Long id;
 
-    private String token;   // The actual JWT token string.
+    /*
+     * The SHA-256 digest of the JWT token string (see TokenDigest). Only the digest is stored, so that a bearer token
+     * cannot be recovered from the database, and lookups compare a short fixed-length value.
+     */
+    @Column(name = "token_hash", length = TokenDigest.LENGTH)
+    private byte[] tokenHash;
 
     // The type of token (e.g., BEARER), which can help differentiate between different token types.
     @Enumerated(EnumType.STRING)    // Specifies that the enum value should be stored as a string in the database.
     private TokenType tokenType;
 
+    @Column(name = "issued_at")
+    private Instant issuedAt;       // The time at which the token was issued.
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;      // The time after which the token is no longer accepted; the row may then be purged.
+
     private boolean expired;        // Indicates whether the token has expired (true if expired).
 
     private boolean revoked;        // Indicates whether the token has been revoked (true if revoked).
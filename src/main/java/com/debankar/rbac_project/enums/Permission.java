@@ -0,0 +1,25 @@
+package com.debankar.rbac_project.enums;
+
+/*
+ * This enum defines the fine-grained permissions that guard the application's endpoints (see RequiresPermission).
+ * Permissions are granted to users through their roles, each of which holds a fixed set of permissions (see Role).
+ */
+public enum Permission {
+    CONTENT_READ("content:read"),           // Reading content.
+    CONTENT_WRITE("content:write"),         // Creating, updating and deleting one's own content.
+    CONTENT_MODERATE("content:moderate"),   // Moderating the content of other users.
+    USER_READ("user:read"),                 // Listing users and their details.
+    USER_WRITE("user:write"),               // Creating users and signing them out.
+    ROLE_ASSIGN("role:assign"),             // Changing the roles of users.
+    SYSTEM_ADMIN("system:admin");           // Administering the application itself.
+
+    private final String value;     // The name of the permission, as shown to clients and in logs.
+
+    Permission(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
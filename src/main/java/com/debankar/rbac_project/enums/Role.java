@@ -1,11 +1,27 @@
 package com.debankar.rbac_project.enums;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 /*
  * This enum defines the different roles that a user can have in the application.
  * Roles are used for role-based access control (RBAC), determining what actions a user is permitted to perform.
+ * Each role grants a fixed set of permissions; a user holds the permissions of all of their roles.
  */
 public enum Role {
-    USER,
-    ADMIN,
-    MODERATOR
+    USER(Permission.CONTENT_READ, Permission.CONTENT_WRITE),
+    ADMIN(Permission.values()),
+    MODERATOR(Permission.CONTENT_READ, Permission.CONTENT_WRITE, Permission.CONTENT_MODERATE);
+
+    private final Set<Permission> permissions;
+
+    Role(Permission... permissions) {
+        this.permissions = EnumSet.copyOf(List.of(permissions));
+    }
+
+    // Returns the permissions granted by this role.
+    public Set<Permission> getPermissions() {
+        return EnumSet.copyOf(permissions);
+    }
 }
@@ -5,5 +5,6 @@ package com.debankar.rbac_project.enums;
  * It helps in categorizing tokens based on their usage or purpose.
  */
 public enum TokenType {
-    BEARER  // Represents a bearer token, which is typically used in authorization headers.
+    BEARER,     // Represents a bearer token, which is typically used in authorization headers.
+    REFRESH     // Represents an opaque refresh token, which is exchanged for a new bearer token once it expires.
 }
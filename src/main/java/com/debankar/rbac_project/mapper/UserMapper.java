@@ -2,6 +2,7 @@ package com.debankar.rbac_project.mapper;
 
 import com.debankar.rbac_project.dto.UserCreationDTO;
 import com.debankar.rbac_project.dto.UserDTO;
+import com.debankar.rbac_project.dto.UserSummaryDTO;
 import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.enums.Role;
 import org.springframework.stereotype.Component;
@@ -26,6 +27,11 @@ public class UserMapper {
         return new UserDTO(id, username, email, roles);
     }
 
+    // Converts a UserSummaryDTO projection, together with the user's roles, to a UserDTO.
+    public UserDTO toUserDTO(UserSummaryDTO user, Set<Role> roles) {
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), roles);
+    }
+
     // Converts a UserCreationDTO to a User entity.
     public User toUser(UserCreationDTO userDTO) {
         // Constructs and returns a new User entity using the data from the UserCreationDTO.
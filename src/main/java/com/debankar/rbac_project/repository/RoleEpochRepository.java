@@ -0,0 +1,13 @@
+package com.debankar.rbac_project.repository;
+
+import com.debankar.rbac_project.entity.RoleEpoch;
+import com.debankar.rbac_project.enums.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/*
+ * This interface is responsible for data access related to RoleEpoch entities.
+ */
+@Repository
+public interface RoleEpochRepository extends JpaRepository<RoleEpoch, Role> {
+}
@@ -1,10 +1,16 @@
 package com.debankar.rbac_project.repository;
 
 import com.debankar.rbac_project.entity.token.Token;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.enums.TokenType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,21 +20,73 @@ import java.util.Optional;
  */
 public interface TokenRepository extends JpaRepository<Token, Long> {
     /*
-     * Custom query to retrieve all valid tokens associated with a user by their user ID.
-     * A token is considered valid if it is neither expired nor revoked.
+     * Marks the user's tokens of the given type that are not yet revoked as expired and revoked, in a single set-based
+     * UPDATE over the (user_id, revoked, expired) index, and returns the number of tokens revoked.
      */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("""
-        SELECT t FROM Token t 
-        INNER JOIN User u ON t.user.id = u.id
-        WHERE u.id = :#{#userId}
-        AND (t.expired = false OR t.revoked = false)
+        UPDATE Token t SET t.expired = true, t.revoked = true
+        WHERE t.user.id = :userId
+        AND t.tokenType = :tokenType
+        AND t.revoked = false
         """)
-    List<Token> findAllValidTokensByUserId(@Param("userId") Long userId);
+    int revokeAllValidTokensByUserIdAndTokenType(@Param("userId") Long userId, @Param("tokenType") TokenType tokenType);
 
     /*
-     * Retrieves a token by its string representation.
+     * Marks the tokens of the given type of all users with the given role that are not yet revoked as expired and
+     * revoked, in a single UPDATE, and returns the number of tokens revoked.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Token t SET t.expired = true, t.revoked = true
+        WHERE t.user.id IN (SELECT u.id FROM User u WHERE :role MEMBER OF u.roles)
+        AND t.tokenType = :tokenType
+        AND t.revoked = false
+        """)
+    int revokeAllValidTokensByRoleAndTokenType(@Param("role") Role role, @Param("tokenType") TokenType tokenType);
+
+    /*
+     * Marks the token with the given ID as expired and revoked, unless it already is, and returns 1 if it was changed.
+     * This is a conditional UPDATE, so that when the same token is used concurrently exactly one caller gets 1.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Token t SET t.expired = true, t.revoked = true WHERE t.id = :id AND t.revoked = false")
+    int revokeIfValid(@Param("id") Long id);
+
+    /*
+     * Retrieves a token by the SHA-256 digest of its string representation (see TokenDigest).
      * This method returns an Optional<Token> to handle cases where the token may not exist, allowing for safe handling
      * of null values.
      */
-    Optional<Token> findByToken(String token);
+    Optional<Token> findByTokenHash(byte[] tokenHash);
+
+    /*
+     * Retrieves the digests and expiry times of revoked access tokens that have not expired by the given time.
+     * This is used to rebuild the in-memory revocation index at startup. Rows written before expiry times were
+     * recorded have no expiry time and are always included.
+     */
+    @Query("""
+        SELECT t.tokenHash AS tokenHash, t.expiresAt AS expiresAt FROM Token t
+        WHERE t.tokenType = com.debankar.rbac_project.enums.TokenType.BEARER
+        AND t.revoked = true
+        AND (t.expiresAt IS NULL OR t.expiresAt > :now)
+        """)
+    List<RevokedToken> findRevokedTokensUnexpiredAt(@Param("now") Instant now);
+
+    /*
+     * Retrieves the ids of up to a page of tokens that expired before the given cut-off time, oldest first.
+     * The query is a range scan over the index on expires_at; it is used by the purge job to delete dead tokens.
+     */
+    @Query("SELECT t.id FROM Token t WHERE t.expiresAt < :cutoff ORDER BY t.expiresAt")
+    List<Long> findIdsExpiredBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    // Projection of the columns of a revoked token that the revocation index needs.
+    interface RevokedToken {
+        byte[] getTokenHash();
+
+        Instant getExpiresAt();
+    }
 }
@@ -0,0 +1,20 @@
+package com.debankar.rbac_project.repository;
+
+import com.debankar.rbac_project.entity.User;
+
+import java.util.Optional;
+
+/*
+ * This interface declares the lookups of User entities by their natural id, the email, which UserRepository inherits.
+ * They go through Hibernate's natural-id API rather than a query, so that they are served by the second-level cache
+ * when it is enabled: by the email-to-id cache, then the user cache, without any database round trip. When it is
+ * disabled (the default), a lookup is a query by email, exact and case-sensitive like the derived query it replaces.
+ */
+public interface UserNaturalIdRepository {
+    /*
+     * Retrieves a user by their email address.
+     * This method returns an Optional<User> to handle cases where the user may not exist, allowing for safe handling
+     * of null values.
+     */
+    Optional<User> findByEmail(String email);
+}
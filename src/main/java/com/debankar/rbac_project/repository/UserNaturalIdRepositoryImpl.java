@@ -0,0 +1,31 @@
+package com.debankar.rbac_project.repository;
+
+import com.debankar.rbac_project.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/*
+ * This class implements UserNaturalIdRepository with Hibernate's natural-id API.
+ * Spring Data picks it up by its name, as the implementation of that fragment of UserRepository.
+ */
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+    private final EntityManager entityManager;
+
+    public UserNaturalIdRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();    // Hibernate rejects a null natural id; the query by email found no user for it either.
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
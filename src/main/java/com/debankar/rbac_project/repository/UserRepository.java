@@ -1,28 +1,64 @@
 package com.debankar.rbac_project.repository;
 
+import com.debankar.rbac_project.dto.UserSummaryDTO;
 import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 
 /*
  * This interface is responsible for data access related to User entities.
- * It extends JpaRepository, providing CRUD operations and additional query methods.
+ * It extends JpaRepository, providing CRUD operations and additional query methods, and UserNaturalIdRepository,
+ * providing lookups by email.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    /*
-     * Retrieves a user by their email address.
-     * This method returns an Optional<User> to handle cases where the user may not exist, allowing for safe handling
-     * of null values.
-     */
-    Optional<User> findByEmail(String email);
-
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
     /*
      * Checks if a user with the specified email already exists in the database.
      * This method is useful for validation during user registration to prevent duplicate emails.
      */
     boolean existsByEmail(String email);
+
+    // Retrieves which of the given emails are already registered, with a single query.
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /*
+     * Retrieves up to a page of users with an id greater than the given one, ordered by id (keyset pagination).
+     * Only the scalar columns are selected, as UserSummaryDTO projections, so no entities or role collections are loaded.
+     */
+    @Query("""
+        SELECT new com.debankar.rbac_project.dto.UserSummaryDTO(u.id, u.username, u.email) FROM User u
+        WHERE u.id > :afterId
+        ORDER BY u.id
+        """)
+    List<UserSummaryDTO> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Same as findPageAfter, restricted to users that have the given role.
+    @Query("""
+        SELECT new com.debankar.rbac_project.dto.UserSummaryDTO(u.id, u.username, u.email) FROM User u
+        WHERE u.id > :afterId
+        AND :role MEMBER OF u.roles
+        ORDER BY u.id
+        """)
+    List<UserSummaryDTO> findPageAfterWithRole(@Param("afterId") long afterId, @Param("role") Role role, Pageable pageable);
+
+    // Retrieves the roles of the users with the given ids, one row per user and role.
+    @Query("SELECT u.id AS userId, r AS role FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRole> findRolesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Projection of a single (user id, role) pair.
+    interface UserRole {
+        Long getUserId();
+
+        Role getRole();
+    }
 }
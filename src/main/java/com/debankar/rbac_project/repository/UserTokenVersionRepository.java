@@ -0,0 +1,48 @@
+package com.debankar.rbac_project.repository;
+
+import com.debankar.rbac_project.entity.UserTokenVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/*
+ * This interface is responsible for data access related to UserTokenVersion entities.
+ * Versions are only written by single statements on their own table, which leave the cached users untouched.
+ */
+@Repository
+public interface UserTokenVersionRepository extends JpaRepository<UserTokenVersion, Long> {
+    /*
+     * Advances the token version of the user with the given id by one, inserting the user's first version (1) if there
+     * is none, and returns the new version, in a single statement. The increment is done by the database, so concurrent
+     * revocations each advance the version. It runs in its own transaction, committed before it returns: a revocation
+     * sticks even if the caller's transaction rolls back, and cannot mark that transaction rollback-only.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(nativeQuery = true, value = """
+        SELECT version FROM FINAL TABLE (
+            MERGE INTO user_token_versions v USING (VALUES CAST(:userId AS BIGINT)) s(user_id) ON v.user_id = s.user_id
+            WHEN MATCHED THEN UPDATE SET version = v.version + 1
+            WHEN NOT MATCHED THEN INSERT (user_id, version) VALUES (s.user_id, 1))
+        """)
+    long incrementTokenVersion(@Param("userId") Long userId);
+
+    // Retrieves the emails and token versions of the users whose tokens have been revoked at least once.
+    @Query("""
+        SELECT u.email AS email, v.version AS tokenVersion FROM UserTokenVersion v
+        JOIN User u ON u.id = v.userId
+        WHERE v.version > 0
+        """)
+    List<EmailTokenVersion> findAdvancedTokenVersions();
+
+    // Projection of a user's email and token version.
+    interface EmailTokenVersion {
+        String getEmail();
+
+        long getTokenVersion();
+    }
+}
@@ -0,0 +1,104 @@
+package com.debankar.rbac_project.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This component records where authentication time goes, as Micrometer timers:
+ * - auth.filter.stage (tag "stage"): each stage of the JWT authentication filter;
+ * - auth.filter.requests (tag "outcome"): whole filter passes, by outcome (valid, revoked, expired, ...);
+ * - auth.service.phase (tags "operation", "phase"): password hashing and database time of login, registration, logout
+ *   and token refresh;
+ * - auth.service.requests (tags "operation", "outcome"): whole login, registration, logout and refresh operations.
+ * Timers also count their events, so each of them doubles as a counter per tag value.
+ */
+@Component
+public class AuthMetrics {
+    // The stages of the JWT authentication filter.
+    public enum FilterStage {
+        HEADER_EXTRACTION, REVOCATION_CHECK, VERIFICATION, USER_DETAILS, SECURITY_CONTEXT
+    }
+
+    // How a pass of the JWT authentication filter ended.
+    public enum FilterOutcome {
+        VALID, MISSING, REVOKED, EXPIRED, MALFORMED, UNKNOWN_USER, ERROR
+    }
+
+    // The operations of the user and logout services.
+    public enum Operation {
+        LOGIN, REGISTRATION, LOGOUT, REFRESH
+    }
+
+    // Where the time of an operation is spent.
+    public enum Phase {
+        HASHING, DATABASE
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    // The filter timers are registered up front, as they are used on every request.
+    private final Map<FilterStage, Timer> filterStageTimers = new EnumMap<>(FilterStage.class);
+    private final Map<FilterOutcome, Timer> filterOutcomeTimers = new EnumMap<>(FilterOutcome.class);
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (FilterStage stage : FilterStage.values()) {
+            filterStageTimers.put(stage, Timer.builder("auth.filter.stage")
+                    .description("Time spent in each stage of the JWT authentication filter")
+                    .tag("stage", tagValue(stage))
+                    .register(meterRegistry));
+        }
+        for (FilterOutcome outcome : FilterOutcome.values()) {
+            filterOutcomeTimers.put(outcome, Timer.builder("auth.filter.requests")
+                    .description("Passes of the JWT authentication filter, by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+    }
+
+    /*
+     * Records a stage of the JWT authentication filter that started at the given System.nanoTime() value, and returns
+     * the current System.nanoTime(), i.e. the start of the next stage.
+     */
+    public long recordFilterStage(FilterStage stage, long startNanos) {
+        long now = System.nanoTime();
+        filterStageTimers.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    // Records a whole pass of the JWT authentication filter that started at the given System.nanoTime() value.
+    public void recordFilterOutcome(FilterOutcome outcome, long startNanos) {
+        filterOutcomeTimers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Records time spent hashing passwords or querying the database during a service operation.
+    public void recordServicePhase(Operation operation, Phase phase, long nanos) {
+        Timer.builder("auth.service.phase")
+                .description("Time spent hashing passwords or querying the database, by operation")
+                .tag("operation", tagValue(operation))
+                .tag("phase", tagValue(phase))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Records a whole service operation that started at the given System.nanoTime() value, with its outcome.
+    public void recordServiceOutcome(Operation operation, String outcome, long startNanos) {
+        Timer.builder("auth.service.requests")
+                .description("Login, registration and logout operations, by outcome")
+                .tag("operation", tagValue(operation))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Formats an enum constant as a tag value, e.g. USER_DETAILS as "user-details".
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,179 @@
+package com.debankar.rbac_project.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * This PasswordEncoder runs the (deliberately slow) hashing of a delegate encoder on a dedicated, fixed-size executor.
+ * Request threads wait for the result, but at most "threads + queueCapacity" hashing requests are admitted at a time;
+ * any further login or registration fails fast with a PasswordHashingRejectedException instead of queueing. This keeps
+ * a login storm from using up all request threads and CPU, so requests that do not hash passwords keep being served.
+ *
+ * Metrics: password.hashing.queue.depth (gauge), password.hashing.active (gauge), password.hashing.wait (time spent
+ * queued), password.hashing.duration (time spent hashing) and password.hashing.rejected (count of fast failures).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore admissions;     // One permit per hashing request that is queued or running.
+    private final int threads;
+    private final Duration maxWait;         // How long a request thread waits for its result before giving up.
+    private final Duration retryAfter;      // Suggested client back-off when a request is rejected.
+
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejections;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait,
+                                  Duration retryAfter, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        this.admissions = new Semaphore(threads + queueCapacity);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads + queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing requests being processed")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time password hashing requests spend queued")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or checking a password")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests rejected because the executor was saturated")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(submitOrReject(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submitOrReject(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);   // Only inspects the hash, so it is cheap.
+    }
+
+    /*
+     * Encodes many passwords, e.g. for bulk registration. Instead of failing fast, this waits for admission, and it
+     * never holds more than "threads" permits at once, so the queue stays available to interactive logins.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        for (int from = 0; from < rawPasswords.size(); from += threads) {
+            List<HashingTask<String>> window = new ArrayList<>(threads);
+            for (CharSequence rawPassword : rawPasswords.subList(from, Math.min(from + threads, rawPasswords.size()))) {
+                admissions.acquireUninterruptibly();
+                window.add(submit(() -> delegate.encode(rawPassword)));
+            }
+            for (HashingTask<String> task : window) {
+                encoded.add(await(task));
+            }
+        }
+        return encoded;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Submits a hashing request if a permit is immediately available, or rejects it.
+    private <T> HashingTask<T> submitOrReject(Supplier<T> hashing) {
+        if (!admissions.tryAcquire()) {
+            rejections.increment();
+            throw new PasswordHashingRejectedException("Too many concurrent logins, please retry later", retryAfter);
+        }
+        return submit(hashing);
+    }
+
+    // Submits a hashing request for which a permit has been acquired. The permit is released when the request ends.
+    private <T> HashingTask<T> submit(Supplier<T> hashing) {
+        AtomicBoolean claimed = new AtomicBoolean();
+        long queuedAt = System.nanoTime();
+        try {
+            Future<T> future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;    // The caller gave up waiting and has already released the permit.
+                }
+                try {
+                    waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    return hashTimer.record(hashing);
+                } finally {
+                    admissions.release();
+                }
+            });
+            return new HashingTask<>(future, claimed);
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+            rejections.increment();
+            throw new PasswordHashingRejectedException("Password hashing is unavailable", retryAfter);
+        }
+    }
+
+    // Waits up to maxWait for the result of a hashing request, abandoning the request if it has not started by then.
+    private <T> T await(HashingTask<T> task) {
+        try {
+            return task.getFuture().get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (task.getClaimed().compareAndSet(false, true)) {
+                admissions.release();   // Still queued: it will be skipped, so its permit is freed now.
+            }
+            rejections.increment();
+            throw new PasswordHashingRejectedException("Timed out waiting for password hashing", retryAfter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", retryAfter);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    // A submitted hashing request, and whether it has been claimed (started by a worker, or abandoned by its caller).
+    @Getter
+    @AllArgsConstructor
+    private static final class HashingTask<T> {
+        private final Future<T> future;
+        private final AtomicBoolean claimed;
+    }
+}
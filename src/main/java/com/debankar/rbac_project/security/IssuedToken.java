@@ -0,0 +1,18 @@
+package com.debankar.rbac_project.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/*
+ * This class holds a newly generated JWT token together with the times at which it was issued and expires.
+ * It lets callers record a token's lifetime without parsing the token they have just generated.
+ */
+@Getter
+@AllArgsConstructor
+public final class IssuedToken {
+    private final String token;         // The compact JWT string.
+    private final Instant issuedAt;     // The time at which the token was issued.
+    private final Instant expiresAt;    // The time after which the token is no longer accepted.
+}
@@ -1,19 +1,27 @@
 package com.debankar.rbac_project.security;
 
-import com.debankar.rbac_project.repository.TokenRepository;
 import com.debankar.rbac_project.service.CustomUserDetailsService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
 
 /*
  * This component filter is responsible for intercepting requests to validate JWT tokens and set authentication in the
@@ -21,64 +29,145 @@ import java.io.IOException;
  * OncePerRequestFilter ensures that the filter logic is executed only once per request, even if the filter is mapped
  * multiple times in the filter chain
  */
+@Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // JwtTokenProvider is used for token validation and extraction of user information.
     private final JwtTokenProvider jwtTokenProvider;
     // CustomUserDetailsService is used to load user-specific data during authentication.
     private final CustomUserDetailsService userDetailsService;
-    // TokenRepository manages the storage and retrieval of tokens, including their validity status.
-    private final TokenRepository tokenRepository;
+    // TokenRevocationIndex tells, from memory, whether a token has been revoked (e.g. by logout).
+    private final TokenRevocationIndex tokenRevocationIndex;
+    // RevocationEpochs tells, from memory, whether all tokens of a user or of one of their roles were revoked since.
+    private final RevocationEpochs revocationEpochs;
+    // AuthMetrics records the time spent in each stage of the filter, and the outcome of each request.
+    private final AuthMetrics authMetrics;
+    // Builds the request details (remote address) attached to each authentication.
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
     public JwtAuthenticationFilter(
             JwtTokenProvider jwtTokenProvider,
             CustomUserDetailsService userDetailsService,
-            TokenRepository tokenRepository) {
+            TokenRevocationIndex tokenRevocationIndex,
+            RevocationEpochs revocationEpochs,
+            AuthMetrics authMetrics) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
-        this.tokenRepository = tokenRepository;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+        this.revocationEpochs = revocationEpochs;
+        this.authMetrics = authMetrics;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        AuthMetrics.FilterOutcome outcome;
+
         try {
             // Extracting the JWT token from the Authorization header of the request
             String token = getTokenFromRequest(request);
+            long stageStartNanos = authMetrics.recordFilterStage(AuthMetrics.FilterStage.HEADER_EXTRACTION, startNanos);
 
-            // Ensuring token is neither expired nor revoked from the TokenRepository
-            boolean isValidToken = tokenRepository.findByToken(token)
-                    .map(t -> !t.isExpired() && !t.isRevoked())
-                    .orElse(false);
-
-            if (token != null && isValidToken && jwtTokenProvider.validateToken(token)) {
-                // Extracting the username from the valid JWT token
-                String username = jwtTokenProvider.extractUsername(token);
-                // Loading user details using the CustomUserDetailsService
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                // Creating an authentication object with user details and authorities
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,   // Credentials are not needed for JWT-based authentication
-                        userDetails.getAuthorities()
-                );
-
-                // Storing the authentication object in the SecurityContext for further use in the application
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            // Authenticating the request with the token, if there is one
+            outcome = token != null
+                    ? authenticate(request, token, stageStartNanos)
+                    : AuthMetrics.FilterOutcome.MISSING;
+        } catch (ExpiredJwtException e) {
+            outcome = AuthMetrics.FilterOutcome.EXPIRED;
+            log.debug("Rejected expired token: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            // Covers tokens that cannot be parsed or whose signature does not match
+            outcome = AuthMetrics.FilterOutcome.MALFORMED;
+            log.debug("Rejected malformed token: {}", e.getMessage());
+        } catch (UsernameNotFoundException e) {
+            outcome = AuthMetrics.FilterOutcome.UNKNOWN_USER;
+            log.debug("Rejected token of unknown user: {}", e.getMessage());
         } catch (Exception e) {
-            // Logging any exceptions that occur during authentication process
-            System.err.println("Could not set user authentication: " + e.getMessage());
+            // Logging any other exceptions that occur during authentication process
+            outcome = AuthMetrics.FilterOutcome.ERROR;
+            log.warn("Could not set user authentication", e);
         }
+        authMetrics.recordFilterOutcome(outcome, startNanos);
 
         // This continues with the next filter in the chain
         filterChain.doFilter(request, response);
     }
 
+    /*
+     * Authenticates the request with the given token, unless the token has been revoked, and returns the outcome.
+     * Exceptions thrown for invalid tokens are left to the caller. The time of each stage is recorded, also when the
+     * stage throws, so that rejected tokens show up in the stage latencies.
+     */
+    private AuthMetrics.FilterOutcome authenticate(HttpServletRequest request, String token, long stageStartNanos) {
+        // Ensuring the token has not been revoked, using the in-memory revocation index
+        boolean revoked;
+        try {
+            revoked = tokenRevocationIndex.isRevoked(TokenDigest.of(token));
+        } finally {
+            stageStartNanos = authMetrics.recordFilterStage(AuthMetrics.FilterStage.REVOCATION_CHECK, stageStartNanos);
+        }
+        if (revoked) {
+            return AuthMetrics.FilterOutcome.REVOKED;
+        }
+
+        // Verifying the signature and expiry of the token once; every later check reads the verified claims
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtTokenProvider.verify(token);
+        } finally {
+            stageStartNanos = authMetrics.recordFilterStage(AuthMetrics.FilterStage.VERIFICATION, stageStartNanos);
+        }
+
+        UserDetails userDetails;
+        boolean revokedByEpoch;
+        try {
+            // Building user details from the token's role claims, if it carries them, or loading them using the
+            // CustomUserDetailsService otherwise
+            userDetails = loadUserDetails(verifiedToken);
+            // Ensuring the tokens of the user, or of the user's roles, have not all been revoked since the token was issued
+            revokedByEpoch = revocationEpochs.isRevoked(verifiedToken, RoleAuthorities.roleMask(userDetails.getAuthorities()));
+        } finally {
+            stageStartNanos = authMetrics.recordFilterStage(AuthMetrics.FilterStage.USER_DETAILS, stageStartNanos);
+        }
+        if (revokedByEpoch) {
+            return AuthMetrics.FilterOutcome.REVOKED;
+        }
+
+        try {
+            // Creating an authentication object with user details and authorities
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,   // Credentials are not needed for JWT-based authentication
+                    userDetails.getAuthorities()
+            );
+
+            // Storing the authentication object in the SecurityContext for further use in the application
+            authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        } finally {
+            authMetrics.recordFilterStage(AuthMetrics.FilterStage.SECURITY_CONTEXT, stageStartNanos);
+        }
+        return AuthMetrics.FilterOutcome.VALID;
+    }
+
+    /*
+     * Returns the user details for the subject of a verified token.
+     * Role-carrying tokens are trusted as they are signed, so no database query is needed for them; their roles are
+     * kept current by revoking a user's tokens whenever the user's roles change. Their authorities are the shared set
+     * of their roles, from RoleAuthorities, so nothing is built for them per request.
+     */
+    private UserDetails loadUserDetails(VerifiedToken verifiedToken) {
+        List<String> roles = jwtTokenProvider.extractRoles(verifiedToken);
+        if (roles == null) {
+            return userDetailsService.loadUserByUsername(verifiedToken.getSubject());
+        }
+
+        return new TokenUserDetails(verifiedToken.getSubject(), RoleAuthorities.ofNames(roles));
+    }
+
     // Extracts the JWT token from the Authorization header of the incoming request.
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
@@ -87,4 +176,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;    // Returns null if no valid bearer token is found
     }
+
+    /*
+     * The user details of a role-carrying token. Unlike Spring Security's User, which copies and sorts its authorities,
+     * it holds the given authority set as it is.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class TokenUserDetails implements UserDetails {
+        private final String username;                      // The subject of the token (email)
+        private final Set<GrantedAuthority> authorities;    // The shared authority set of the token's roles
+
+        // The password is not known, nor needed, for JWT-based authentication
+        @Override
+        public String getPassword() {
+            return "";
+        }
+    }
 }
\ No newline at end of file
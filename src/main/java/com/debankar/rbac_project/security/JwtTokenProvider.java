@@ -1,83 +1,173 @@
 package com.debankar.rbac_project.security;
 
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /*
  * This component is responsible for generating and validating JWT tokens used for authentication.
  * It provides methods to extract information from tokens and check their validity.
+ * Tokens are signed with the current key of the SigningKeyring, whose key id is written to the token header, and are
+ * verified with whichever key of the keyring the header names. The JWT parser is built once and shared by all requests.
+ * Access tokens are short-lived JWTs verified without any database query. They are renewed with opaque refresh tokens,
+ * also generated here, which are only meaningful together with their record in the Token table.
  */
 @Component
 public class JwtTokenProvider {
-    // Secret key used for signing JWT tokens, injected from application.yml
-    @Value("${my.secret.key}")
-    private String secretKey;
-
-    // Generating a signing key from the secret key for token signing and verification.
-    private SecretKey getSigningKey() {
-        // HMAC SHA algorithm to create a signing key from the secret key bytes.
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    // Name of the custom claim holding the user's role names, present only on role-carrying tokens.
+    public static final String ROLES_CLAIM = "roles";
+    // Number of random bytes in a refresh token (256 bits).
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    // The keys that sign new tokens and verify incoming ones, which can be rotated while the application runs.
+    private final SigningKeyring signingKeyring;
+    // Thread-safe parser, which looks up the verification key of each token in the keyring, used to verify every token.
+    private final JwtParser jwtParser;
+    /*
+     * When enabled, tokens carry the user's roles as a signed claim, so that the authentication filter can
+     * build the authenticated principal from the token without loading the user from the database.
+     */
+    private final boolean roleClaimsEnabled;
+    // How long a newly generated access token remains valid.
+    private final Duration accessTokenValidity;
+    // How long a newly generated refresh token remains valid, unless it is used or revoked first.
+    private final Duration refreshTokenValidity;
+    // Source of the random bytes of refresh tokens.
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public JwtTokenProvider(SigningKeyring signingKeyring,
+                            @Value("${my.jwt.role-claims.enabled:false}") boolean roleClaimsEnabled,
+                            @Value("${my.jwt.access-token-validity:PT5M}") Duration accessTokenValidity,
+                            @Value("${my.jwt.refresh-token-validity:P7D}") Duration refreshTokenValidity) {
+        this.roleClaimsEnabled = roleClaimsEnabled;
+        this.accessTokenValidity = accessTokenValidity;
+        this.refreshTokenValidity = refreshTokenValidity;
+        this.signingKeyring = signingKeyring;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(signingKeyring)     // Verify with the key named by the token's "kid" header
+                .build();
     }
 
     /*
-     * Extracts all claims(pieces of information about a subject, such as a user, that are encoded in a JSON object)
-     * from the provided JWT token.
+     * Verifies the signature and expiry of the provided JWT token with a single parse and returns the verified claims.
+     * Throws a JwtException (e.g. ExpiredJwtException, MalformedJwtException) if the token cannot be trusted.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())    // Verify with Signing key
-                .build()
-                .parseSignedClaims(token)       // Parse signed claims from token
-                .getPayload();                  // Retrieve claims payload
+    public VerifiedToken verify(String token) {
+        Claims claims = jwtParser
+                .parseSignedClaims(token)   // Parse signed claims from token
+                .getPayload();              // Retrieve claims payload
+
+        return new VerifiedToken(token, claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(), claims);
     }
 
     // Returns the subject of the token (username).
     public String extractUsername(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims != null ? claims.getSubject() : null;
+        return verify(token).getSubject();
     }
 
-    // Returns the expiration date of the token.
-    private Date extractExpiration(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims != null ? claims.getExpiration() : null;
+    // Validates whether a given JWT token is still valid i.e. correctly signed and not expired.
+    public boolean validateToken(String token) {
+        try {
+            verify(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
-    // Validates whether a given JWT token is still valid i.e. not expired.
-    public boolean validateToken(String token) {
-        return !isTokenExpired(token);
+    // Returns how long a newly generated access token remains valid, i.e. the longest lifetime of any access token.
+    public Duration getAccessTokenValidity() {
+        return accessTokenValidity;
     }
 
-    // Returns true if expiration date is before current date(now).
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractExpiration(token);
-        return expiration != null && expiration.before(new Date());
+    // Returns true if newly generated tokens carry the user's roles as a claim.
+    public boolean isRoleClaimsEnabled() {
+        return roleClaimsEnabled;
     }
 
     // Creates and returns a new token with specified claims and subject(username).
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        return createToken(claims, username).getToken();
+    }
+
+    // Creates and returns a new token for the given user, with the user's email as subject.
+    public String generateToken(User user) {
+        return issueToken(user).getToken();
+    }
+
+    /*
+     * Creates a new token for the given user, with the user's email as subject, and returns it along with its
+     * issue and expiry times. If role claims are enabled, the user's roles are added to the token as a claim.
+     */
+    public IssuedToken issueToken(User user) {
+        return issueToken(user, Map.of());
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + 60 * 60 * 1000); // Token expires in 60 minutes
+    /*
+     * Creates a new token for the given user, like issueToken(User), which also carries the given claims (e.g. the
+     * revocation claims of RevocationEpochs).
+     */
+    public IssuedToken issueToken(User user, Map<String, Object> additionalClaims) {
+        Map<String, Object> claims = new HashMap<>(additionalClaims);
+        if (roleClaimsEnabled) {
+            claims.put(ROLES_CLAIM, user.getRoles().stream().map(Role::name).toList());
+        }
+        return createToken(claims, user.getEmail());
+    }
 
-        return Jwts.builder()
+    /*
+     * Creates a new opaque refresh token, a random URL-safe string, and returns it along with its issue and expiry
+     * times. Unlike an access token it carries no claims: it is only honoured if its digest is found in the Token table.
+     */
+    public IssuedToken issueRefreshToken() {
+        byte[] randomBytes = new byte[REFRESH_TOKEN_BYTES];
+        secureRandom.nextBytes(randomBytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return new IssuedToken(token, now, now.plus(refreshTokenValidity));
+    }
+
+    // Returns the role names carried by a verified token, or null if the token does not carry roles.
+    @SuppressWarnings("unchecked")
+    public List<String> extractRoles(VerifiedToken verifiedToken) {
+        return roleClaimsEnabled ? verifiedToken.getClaim(ROLES_CLAIM, List.class) : null;
+    }
+
+    private IssuedToken createToken(Map<String, Object> claims, String subject) {
+        // JWT timestamps have a precision of seconds, so the recorded times are truncated to match the token.
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant expiryDate = now.plus(accessTokenValidity);     // Token expires after the access token validity
+
+        SigningKeyring.SigningKey signingKey = signingKeyring.getSigningKey();
+
+        String token = Jwts.builder()
+                .header().keyId(signingKey.getKeyId()).and()    // Name the key that signs the token
                 .claims(claims)             // Set claims in the token
+                .id(UUID.randomUUID().toString())   // Set a unique id, so no two tokens are ever identical
                 .subject(subject)           // Set subject (username)
-                .issuedAt(now)              // Set issued timestamp
-                .expiration(expiryDate)     // Set expiry timestamp
-                .signWith(getSigningKey())  // Sign the token with signing key
-                .compact();                 // Build and return the compacted JWT string
+                .issuedAt(Date.from(now))           // Set issued timestamp
+                .expiration(Date.from(expiryDate))  // Set expiry timestamp
+                .signWith(signingKey.getKey(), signingKey.getAlgorithm())  // Sign the token with signing key
+                .compact();                 // Build the compacted JWT string
+
+        return new IssuedToken(token, now, expiryDate);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.debankar.rbac_project.security;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/*
+ * This component throttles login attempts before any password is hashed, so that repeated attempts cannot be used to
+ * burn CPU on BCrypt. Every attempt takes a token from the bucket of its client IP and from the bucket of its email as
+ * tried from that IP; an attempt for which either bucket is empty is rejected with a LoginThrottledException. A
+ * successful login gives its email token back. Failed attempts from one address thus never lock the account out for
+ * its owner on another address, and the owner's own logins never use up the account's budget.
+ * Each limiter tracks at most "maximum-keys" keys, on the order of 150 bytes each, which bounds its memory use.
+ */
+@Component
+public class LoginThrottle {
+    private final RateLimiter ipLimiter;
+    private final RateLimiter emailLimiter;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${my.login-throttle.ip.burst:50}") int ipBurst,
+                         @Value("${my.login-throttle.ip.period:PT1M}") Duration ipPeriod,
+                         @Value("${my.login-throttle.email.burst:5}") int emailBurst,
+                         @Value("${my.login-throttle.email.period:PT1M}") Duration emailPeriod,
+                         @Value("${my.login-throttle.maximum-keys:100000}") long maximumKeys) {
+        this(limiter("my.login-throttle.ip", ipBurst, ipPeriod, maximumKeys),
+                limiter("my.login-throttle.email", emailBurst, emailPeriod, maximumKeys),
+                meterRegistry);
+    }
+
+    // Creates a throttle with the given limiters, e.g. with a manual clock in tests.
+    public LoginThrottle(RateLimiter ipLimiter, RateLimiter emailLimiter, MeterRegistry meterRegistry) {
+        this.ipLimiter = ipLimiter;
+        this.emailLimiter = emailLimiter;
+        this.ipRejections = Counter.builder("login.throttled").tag("key", "ip")
+                .description("Login attempts rejected by the login throttle")
+                .register(meterRegistry);
+        this.emailRejections = Counter.builder("login.throttled").tag("key", "email")
+                .description("Login attempts rejected by the login throttle")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Records a login attempt, or throws a LoginThrottledException if the client IP, or the email from that IP, is over
+     * its limit.
+     */
+    public void acquire(String email, String clientIp) {
+        long waitNanos = ipLimiter.tryAcquire(clientIp);
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            throw new LoginThrottledException("Too many login attempts from this address", retryAfter(waitNanos));
+        }
+
+        waitNanos = emailLimiter.tryAcquire(emailKey(email, clientIp));
+        if (waitNanos > 0) {
+            emailRejections.increment();
+            throw new LoginThrottledException("Too many login attempts for this account", retryAfter(waitNanos));
+        }
+    }
+
+    // Creates the limiter configured under the given property prefix, naming the invalid property if it cannot.
+    private static RateLimiter limiter(String prefix, int burst, Duration period, long maximumKeys) {
+        try {
+            return new RateLimiter(burst, period, maximumKeys, Ticker.systemTicker());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(prefix + "." + e.getMessage(), e);
+        }
+    }
+
+    // Gives back the email token of a successful login attempt, so that only failed attempts count against the email.
+    public void succeeded(String email, String clientIp) {
+        emailLimiter.release(emailKey(email, clientIp));
+    }
+
+    // Emails are compared case-insensitively, so that case variants of an address share one bucket.
+    private static String emailKey(String email, String clientIp) {
+        return email.trim().toLowerCase(Locale.ROOT) + ' ' + clientIp;
+    }
+
+    // Rounds the wait up to whole seconds, the unit of the Retry-After header.
+    private static Duration retryAfter(long waitNanos) {
+        return Duration.ofSeconds((waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,19 @@
+package com.debankar.rbac_project.security;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/*
+ * This exception is thrown when a login attempt exceeds the allowed rate for its email or client IP.
+ * It is answered with 429 Too Many Requests and a Retry-After header telling the client when to try again.
+ */
+@Getter
+public class LoginThrottledException extends RuntimeException {
+    private final Duration retryAfter;  // How long the client has to wait before its next attempt is allowed.
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
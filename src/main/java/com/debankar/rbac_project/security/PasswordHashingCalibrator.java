@@ -0,0 +1,50 @@
+package com.debankar.rbac_project.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This class picks the BCrypt cost (strength) for the host the application runs on.
+ * It times a few hashes at the minimum strength and, since each step of strength doubles the work, chooses the
+ * highest strength whose estimated hashing time still fits the latency budget. A slow host therefore gets cheaper
+ * hashes (never below the minimum), and a fast host gets stronger ones, without changing configuration.
+ */
+@Slf4j
+public final class PasswordHashingCalibrator {
+    private static final int SAMPLES = 3;   // Number of timed hashes; the fastest one is used.
+
+    private PasswordHashingCalibrator() {
+    }
+
+    // Measures this host and returns the BCrypt strength, between minStrength and maxStrength, that fits the budget.
+    public static int calibrateBCryptStrength(Duration latencyBudget, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode("calibration-password");     // Warming up, so class loading and JIT are not measured.
+
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long startNanos = System.nanoTime();
+            encoder.encode("calibration-password");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - startNanos);
+        }
+
+        int strength = strengthWithin(fastestNanos, minStrength, maxStrength, latencyBudget.toNanos());
+        log.info("Calibrated BCrypt strength {}: strength {} takes {} ms on this host, the latency budget is {} ms",
+                strength, minStrength, TimeUnit.NANOSECONDS.toMillis(fastestNanos), latencyBudget.toMillis());
+        return strength;
+    }
+
+    // Returns the highest strength, starting from minStrength, whose estimated hashing time fits the budget.
+    static int strengthWithin(long nanosAtMinStrength, int minStrength, int maxStrength, long budgetNanos) {
+        int strength = minStrength;
+        long estimatedNanos = nanosAtMinStrength;
+        while (strength < maxStrength && estimatedNanos * 2 <= budgetNanos) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,19 @@
+package com.debankar.rbac_project.security;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/*
+ * This exception is thrown when a password cannot be hashed or checked because the hashing executor is saturated.
+ * It is answered with 503 Service Unavailable and a Retry-After header telling the client when to try again.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+    private final Duration retryAfter;  // How long the client should wait before retrying.
+
+    public PasswordHashingRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,115 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.enums.Permission;
+import com.debankar.rbac_project.enums.Role;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * This authorization manager enforces RequiresPermission on method calls.
+ * Permissions are stored as bitsets, one bit per Permission. The permissions granted by every combination of roles are
+ * computed once, in a table indexed by the bitmask of the roles, and the permissions required by each method are
+ * resolved from its annotations on its first call on each target class, since an inherited method takes its class's
+ * annotation from the class it is called on. A check then only maps the caller's role authorities to their bits
+ * and compares two bitsets, with no string comparison of permissions and no expression to evaluate.
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    // The required permissions of a method without RequiresPermission, which every caller passes.
+    private static final long NO_PERMISSION = 0L;
+
+    // The permissions granted by each combination of roles, indexed by the mask of the roles.
+    private static final long[] PERMISSIONS_BY_ROLES = new long[1 << Role.values().length];
+
+    static {
+        for (int roleMask = 0; roleMask < PERMISSIONS_BY_ROLES.length; roleMask++) {
+            for (Role role : Role.values()) {
+                if ((roleMask & RoleAuthorities.roleBit(role)) != 0) {
+                    PERMISSIONS_BY_ROLES[roleMask] |= permissionMask(role.getPermissions().toArray(Permission[]::new));
+                }
+            }
+        }
+    }
+
+    // The permissions required by each method called so far, per class of the objects it was called on.
+    private final Map<MethodClassKey, Long> requiredPermissions = new ConcurrentHashMap<>();
+
+    /*
+     * Returns a method interceptor enforcing RequiresPermission, on the methods annotated with it and on all the methods
+     * of the classes annotated with it.
+     */
+    public static AuthorizationManagerBeforeMethodInterceptor interceptor() {
+        Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(RequiresPermission.class, true))
+                .union(new AnnotationMatchingPointcut(null, RequiresPermission.class, true));
+        return new AuthorizationManagerBeforeMethodInterceptor(pointcut, new PermissionAuthorizationManager());
+    }
+
+    @Override
+    public AuthorizationDecision authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        long required = requiredPermissions.computeIfAbsent(
+                new MethodClassKey(invocation.getMethod(), target != null ? target.getClass() : null),
+                key -> resolveRequiredPermissions(invocation.getMethod(), target));
+        if (required == NO_PERMISSION) {
+            return GRANTED;
+        }
+        long granted = grantedPermissions(authentication.get());
+        return (granted & required) == required ? GRANTED : DENIED;
+    }
+
+    // Still abstract in AuthorizationManager, but deprecated in favour of authorize, to which it delegates.
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return authorize(authentication, invocation);
+    }
+
+    // Returns the permissions granted to the caller by its roles; anonymous callers have none.
+    static long grantedPermissions(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return NO_PERMISSION;
+        }
+
+        return PERMISSIONS_BY_ROLES[RoleAuthorities.roleMask(authentication.getAuthorities())];
+    }
+
+    static long permissionMask(Permission... permissions) {
+        long mask = 0L;
+        for (Permission permission : permissions) {
+            mask |= 1L << permission.ordinal();
+        }
+        return mask;
+    }
+
+    /*
+     * Returns the permissions required by the given method, as called on the given target: those of the method's
+     * annotation if it has one, else those of its class's annotation.
+     */
+    private static long resolveRequiredPermissions(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        return annotation != null ? permissionMask(annotation.value()) : NO_PERMISSION;
+    }
+}
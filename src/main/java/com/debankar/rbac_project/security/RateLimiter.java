@@ -0,0 +1,88 @@
+package com.debankar.rbac_project.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * This class limits how often each key (e.g. an email or a client IP) may perform an action, like a token bucket that
+ * holds "burst" tokens and refills all of them over "period".
+ * It uses the generic cell rate algorithm: the whole state of a key is one timestamp (the theoretical arrival time of
+ * its next request), updated with a compare-and-set, so checks are lock-free. Keys are held in a cache bounded to
+ * maxKeys entries, and a key idle for a full period is dropped, since its bucket would be full again anyway.
+ */
+public class RateLimiter {
+    private final long emissionIntervalNanos;   // Time to refill one token.
+    private final long burstNanos;              // Time to refill the whole bucket.
+    private final Ticker ticker;
+
+    // Theoretical arrival time (ticker nanos) of the next request of each key.
+    private final Cache<String, AtomicLong> arrivalTimes;
+
+    /*
+     * Creates a limiter allowing "burst" actions per key at once, refilled over "period". Throws an
+     * IllegalArgumentException, whose message starts with the name of the invalid setting, if the burst or the period
+     * is not positive, or if the burst is so large that a token would take less than a nanosecond to refill.
+     */
+    public RateLimiter(int burst, Duration period, long maxKeys, Ticker ticker) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive, but is " + burst);
+        }
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period must be positive, but is " + period);
+        }
+        if (period.toNanos() < burst) {
+            throw new IllegalArgumentException(
+                    "burst must not exceed the nanoseconds of the period (" + period + "), but is " + burst);
+        }
+        this.emissionIntervalNanos = period.toNanos() / burst;
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.ticker = ticker;
+        this.arrivalTimes = Caffeine.newBuilder()
+                .maximumSize(maxKeys)           // Bounds memory use, whatever the number of distinct keys
+                .expireAfterAccess(period)      // Drops keys whose bucket has refilled
+                .ticker(ticker)
+                .build();
+    }
+
+    /*
+     * Takes a token for the given key. Returns zero if the action is allowed, or otherwise how long (in nanos) the
+     * caller has to wait until a token is available; no token is taken in that case.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong arrivalTime = arrivalTimes.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = ticker.read();
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long waitNanos = next - now - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /*
+     * Gives back a token taken for the given key, e.g. for an action that turned out not to count against the limit.
+     * Nothing is given back beyond a full bucket.
+     */
+    public void release(String key) {
+        AtomicLong arrivalTime = arrivalTimes.getIfPresent(key);
+        if (arrivalTime != null) {
+            arrivalTime.accumulateAndGet(ticker.read(),
+                    (current, now) -> Math.max(current - emissionIntervalNanos, now));
+        }
+    }
+
+    // Returns the number of keys currently tracked.
+    public long size() {
+        arrivalTimes.cleanUp();
+        return arrivalTimes.estimatedSize();
+    }
+}
@@ -0,0 +1,22 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.enums.Permission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * This annotation restricts a method, or every method of a class, to callers whose roles grant all of the given
+ * permissions. A method's annotation takes precedence over its class's.
+ * It is enforced by PermissionAuthorizationManager, which denies the call with an AccessDeniedException (403).
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+    // The permissions the caller needs, all of them.
+    Permission[] value();
+}
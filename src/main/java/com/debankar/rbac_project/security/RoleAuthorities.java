@@ -0,0 +1,99 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.enums.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * This class is the registry of the granted authorities of roles, e.g. "ROLE_ADMIN" for Role.ADMIN.
+ * A user's roles are described by a bitmask, one bit per Role. The immutable authority set of every combination of
+ * roles is built once, from the Role enum, and shared by all users with those roles, so that building a user's
+ * authorities allocates nothing. Mapping authorities back to roles looks the shared instances up by identity, so that
+ * it neither hashes nor compares their strings; only authorities built elsewhere fall back to their strings.
+ */
+public final class RoleAuthorities {
+    private static final Role[] ROLES = Role.values();
+    // Role names (e.g. "ADMIN"), as carried by role claims, mapped to their roles.
+    private static final Map<String, Role> ROLES_BY_NAME = new HashMap<>();
+    // The shared role authorities mapped to the bit of their role, by identity.
+    private static final Map<GrantedAuthority, Integer> ROLE_BITS_BY_AUTHORITY = new IdentityHashMap<>();
+    // Role authorities (e.g. "ROLE_ADMIN") mapped to the bit of their role.
+    private static final Map<String, Integer> ROLE_BITS = new HashMap<>();
+    // The authority set of each combination of roles, indexed by the mask of the roles.
+    private static final Set<GrantedAuthority>[] AUTHORITIES_BY_ROLES;
+
+    static {
+        GrantedAuthority[] roleAuthorities = new GrantedAuthority[ROLES.length];
+        for (Role role : ROLES) {
+            roleAuthorities[role.ordinal()] = new SimpleGrantedAuthority("ROLE_" + role.name());
+            ROLES_BY_NAME.put(role.name(), role);
+            ROLE_BITS_BY_AUTHORITY.put(roleAuthorities[role.ordinal()], roleBit(role));
+            ROLE_BITS.put(roleAuthorities[role.ordinal()].getAuthority(), roleBit(role));
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<GrantedAuthority>[] authoritiesByRoles = new Set[1 << ROLES.length];
+        for (int roleMask = 0; roleMask < authoritiesByRoles.length; roleMask++) {
+            Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+            for (Role role : ROLES) {
+                if ((roleMask & roleBit(role)) != 0) {
+                    authorities.add(roleAuthorities[role.ordinal()]);
+                }
+            }
+            authoritiesByRoles[roleMask] = Collections.unmodifiableSet(authorities);
+        }
+        AUTHORITIES_BY_ROLES = authoritiesByRoles;
+    }
+
+    private RoleAuthorities() {
+    }
+
+    // Returns the shared authority set of the given roles.
+    public static Set<GrantedAuthority> of(Collection<Role> roles) {
+        int roleMask = 0;
+        for (Role role : roles) {
+            roleMask |= roleBit(role);
+        }
+        return AUTHORITIES_BY_ROLES[roleMask];
+    }
+
+    // Returns the shared authority set of the roles with the given names; names of no role grant nothing.
+    public static Set<GrantedAuthority> ofNames(Collection<String> roleNames) {
+        int roleMask = 0;
+        for (String roleName : roleNames) {
+            Role role = ROLES_BY_NAME.get(roleName);
+            if (role != null) {
+                roleMask |= roleBit(role);
+            }
+        }
+        return AUTHORITIES_BY_ROLES[roleMask];
+    }
+
+    // Returns the mask of the roles among the given authorities; authorities of no role are ignored.
+    public static int roleMask(Collection<? extends GrantedAuthority> authorities) {
+        int roleMask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Integer roleBit = ROLE_BITS_BY_AUTHORITY.get(authority);
+            if (roleBit == null) {
+                roleBit = ROLE_BITS.get(authority.getAuthority());
+            }
+            if (roleBit != null) {
+                roleMask |= roleBit;
+            }
+        }
+        return roleMask;
+    }
+
+    // Returns the bit of the given role in a role mask.
+    public static int roleBit(Role role) {
+        return 1 << role.ordinal();
+    }
+}
@@ -0,0 +1,203 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.enums.Role;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * This authorization manager decides which callers may access a request from a table of route rules, compiled into a
+ * prefix tree (trie) of path segments.
+ * Each rule grants access to a set of callers, stored as a bitmask: one bit per Role, plus one bit for any authenticated
+ * user and one for anonymous users. A caller is described by the same kind of mask, so a check is a single walk down
+ * the tree followed by a bitwise AND, and its cost depends on the depth of the path, not on the number of rules.
+ * Patterns are made of literal segments, "*" (or "{name}") matching one segment, and a trailing "**" matching any
+ * remaining segments. When several rules match, the most specific wins: at each segment a literal beats "*", which
+ * beats a "**" ending there, and a deeper "**" beats a shallower one. A rule for a specific HTTP method beats a rule for
+ * any method on the same pattern. Requests matching no rule are only allowed to authenticated users.
+ */
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    // Mask bit granted to every authenticated caller, whatever their roles.
+    private static final int AUTHENTICATED = 1 << 30;
+    // Mask bit granted to anonymous callers only.
+    private static final int ANONYMOUS = 1 << 31;
+    // The mask of a missing rule; no actual rule has an empty mask, as every rule allows someone.
+    private static final int NO_RULE = 0;
+    // The standard HTTP methods, whose index selects a rule of a node; the last slot holds the rule for any method.
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+    private static final int ANY_METHOD = METHODS.length;
+
+    private final Node root;
+    private final int defaultMask;      // The callers allowed on requests matching no rule.
+
+    private RouteAuthorizationManager(Node root, int defaultMask) {
+        this.root = root;
+        this.defaultMask = defaultMask;
+    }
+
+    // Returns a builder of a route table; rules can be added in any order, as the most specific match always wins.
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public AuthorizationDecision authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        int allowed = allowedCallers(context.getRequest());
+        if ((allowed & ANONYMOUS) != 0 && (allowed & AUTHENTICATED) != 0) {
+            return GRANTED;     // Open to everyone, so the caller need not be looked at.
+        }
+        return (allowed & callerMask(authentication.get())) != 0 ? GRANTED : DENIED;
+    }
+
+    // Still abstract in AuthorizationManager, but deprecated in favour of authorize, to which it delegates.
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return authorize(authentication, context);
+    }
+
+    // Returns the mask of the callers allowed to make the given request, from the most specific matching rule.
+    int allowedCallers(HttpServletRequest request) {
+        // The decoded path, as matched against handler mappings, so that an encoded segment cannot evade a rule.
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        int mask = match(root, path.split("/"), 0, methodIndex(request.getMethod()));
+        return mask != NO_RULE ? mask : defaultMask;
+    }
+
+    /*
+     * Returns the mask of the most specific rule matching the path segments from the given index on, below the given
+     * node, or NO_RULE if none matches. A literal child is tried first, then the "*" child, then the node's own "**".
+     */
+    private static int match(Node node, String[] segments, int index, int methodIndex) {
+        while (index < segments.length && segments[index].isEmpty()) {
+            index++;    // Skipping empty segments, from the leading slash or from repeated or trailing slashes.
+        }
+        if (index == segments.length) {
+            int mask = node.ruleFor(node.exactRules, methodIndex);
+            return mask != NO_RULE ? mask : node.ruleFor(node.remainderRules, methodIndex);
+        }
+
+        Node literalChild = node.children.get(segments[index]);
+        if (literalChild != null) {
+            int mask = match(literalChild, segments, index + 1, methodIndex);
+            if (mask != NO_RULE) {
+                return mask;
+            }
+        }
+        if (node.wildcardChild != null) {
+            int mask = match(node.wildcardChild, segments, index + 1, methodIndex);
+            if (mask != NO_RULE) {
+                return mask;
+            }
+        }
+        return node.ruleFor(node.remainderRules, methodIndex);
+    }
+
+    // Returns the mask describing the caller: its roles and whether it is authenticated at all.
+    private static int callerMask(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS;
+        }
+
+        return AUTHENTICATED | RoleAuthorities.roleMask(authentication.getAuthorities());
+    }
+
+    // Returns the index of the rules of a node for the given HTTP method; non-standard methods only match any-method rules.
+    private static int methodIndex(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].name().equals(method)) {
+                return i;
+            }
+        }
+        return ANY_METHOD;
+    }
+
+    /*
+     * A node of the route tree, reached by the path segments leading to it. It holds, per HTTP method, the rule of the
+     * pattern ending exactly here, and the rule of the pattern ending here with "**".
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node wildcardChild;
+        private final int[] exactRules = new int[METHODS.length + 1];
+        private final int[] remainderRules = new int[METHODS.length + 1];
+
+        // Returns the rule for the given method among the given rules, falling back to the rule for any method.
+        private int ruleFor(int[] rules, int methodIndex) {
+            return rules[methodIndex] != NO_RULE ? rules[methodIndex] : rules[ANY_METHOD];
+        }
+    }
+
+    // Builds a RouteAuthorizationManager from route rules, compiling them into the route tree.
+    public static final class Builder {
+        private final Node root = new Node();
+
+        // Allows everyone, authenticated or not, to access the paths matching the pattern.
+        public Builder permitAll(String pattern) {
+            return addRule(null, pattern, AUTHENTICATED | ANONYMOUS);
+        }
+
+        // Allows any authenticated user to access the paths matching the pattern.
+        public Builder authenticated(String pattern) {
+            return addRule(null, pattern, AUTHENTICATED);
+        }
+
+        // Allows users with any of the given roles to access the paths matching the pattern.
+        public Builder hasAnyRole(String pattern, Role... roles) {
+            return hasAnyRole(null, pattern, roles);
+        }
+
+        // Allows users with any of the given roles to make requests with the given method to paths matching the pattern.
+        public Builder hasAnyRole(HttpMethod method, String pattern, Role... roles) {
+            if (roles.length == 0) {
+                throw new IllegalArgumentException("At least one role is required for " + pattern);
+            }
+            int mask = Arrays.stream(roles).mapToInt(RoleAuthorities::roleBit).reduce(0, (a, b) -> a | b);
+            return addRule(method, pattern, mask);
+        }
+
+        public RouteAuthorizationManager build() {
+            return new RouteAuthorizationManager(root, AUTHENTICATED);
+        }
+
+        private Builder addRule(HttpMethod method, String pattern, int mask) {
+            String[] segments = Arrays.stream(pattern.split("/")).filter(segment -> !segment.isEmpty()).toArray(String[]::new);
+            boolean remainder = segments.length > 0 && segments[segments.length - 1].equals("**");
+            int depth = remainder ? segments.length - 1 : segments.length;
+
+            Node node = root;
+            for (int i = 0; i < depth; i++) {
+                String segment = segments[i];
+                if (segment.equals("**")) {
+                    throw new IllegalArgumentException("\"**\" is only supported at the end of a pattern: " + pattern);
+                }
+                if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                    node = node.wildcardChild != null ? node.wildcardChild : (node.wildcardChild = new Node());
+                } else {
+                    node = node.children.computeIfAbsent(segment, key -> new Node());
+                }
+            }
+
+            int[] rules = remainder ? node.remainderRules : node.exactRules;
+            int methodIndex = method != null ? methodIndex(method.name()) : ANY_METHOD;
+            if (rules[methodIndex] != NO_RULE) {
+                throw new IllegalArgumentException("Duplicate rule for " + (method != null ? method + " " : "") + pattern);
+            }
+            rules[methodIndex] = mask;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.debankar.rbac_project.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Parser;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecretJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * This component holds the keys that sign and verify JWT tokens, each identified by a key id ("kid") that is written
+ * to the header of every token it signs.
+ * Keys are read from a JWK Set file (my.jwt.keys.file) holding HMAC (HS256/384/512), ECDSA (ES256/384/512) or EdDSA
+ * keys, each with a "kid" and an "alg". The first key of the file signs new tokens; every key of the file verifies.
+ * The file is checked for changes periodically and reloaded without a restart. A key removed from the file is still
+ * accepted for the access token validity, so that the tokens it signed remain usable until they expire.
+ * Without a key file, tokens are signed with an HMAC key derived from my.secret.key.
+ * This component is also the key locator of the JWT parser: verification keys are resolved once, when they are loaded,
+ * so verifying a token costs a single map lookup on top of the signature check.
+ */
+@Slf4j
+@Component
+public class SigningKeyring extends LocatorAdapter<Key> {
+    // Key id of the HMAC key derived from my.secret.key. Tokens without a key id are verified with this key.
+    public static final String SECRET_KEY_ID = "secret-key";
+    // The signature algorithms accepted in the key file, by their JWA names.
+    private static final Set<String> SUPPORTED_ALGORITHMS =
+            Set.of("HS256", "HS384", "HS512", "ES256", "ES384", "ES512", "EdDSA");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String secretKey;             // The secret the HMAC key is derived from when there is no key file.
+    private final Path keysFile;                // The JWK Set file, or null if none is configured.
+    private final Duration retiredKeyValidity;  // How long a key removed from the file is still accepted.
+
+    // The keys currently in use, replaced as a whole on every reload so that readers never see a partial update.
+    private volatile KeyringState state;
+    // The modification time of the key file when it was last read, whether or not it could be loaded.
+    private volatile FileTime keysFileModifiedTime;
+
+    public SigningKeyring(@Value("${my.secret.key}") String secretKey,
+                          @Value("${my.jwt.keys.file:}") String keysFile,
+                          @Value("${my.jwt.access-token-validity:PT5M}") Duration retiredKeyValidity) {
+        this.secretKey = secretKey;
+        this.keysFile = keysFile == null || keysFile.isBlank() ? null : Path.of(keysFile);
+        this.retiredKeyValidity = retiredKeyValidity;
+
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not load the signing keys from " + this.keysFile, e);
+        }
+    }
+
+    // Returns the key that signs new tokens, along with its key id and algorithm.
+    public SigningKey getSigningKey() {
+        return state.getSigningKey();
+    }
+
+    // Returns the JWK Set document of the public keys that verify tokens, for other services to verify tokens locally.
+    public String getJwks() {
+        return state.getJwks();
+    }
+
+    /*
+     * Returns the key that verifies the token with the given header, as the JWT parser's key locator.
+     * The key must be known and not retired for longer than the retired key validity, and the token must have been
+     * signed with the key's own algorithm, so that a token cannot pick a weaker algorithm for a key.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId() != null ? header.getKeyId() : SECRET_KEY_ID;
+        VerificationKey verificationKey = state.getVerificationKeys().get(keyId);
+
+        if (verificationKey == null || verificationKey.isRetiredAt(System.currentTimeMillis())) {
+            throw new UnsupportedJwtException("Unknown signing key: " + keyId);
+        }
+        if (!verificationKey.getAlgorithm().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Unexpected algorithm " + header.getAlgorithm() + " for key " + keyId);
+        }
+        return verificationKey.getKey();
+    }
+
+    // Reloads the key file if it has changed since it was last loaded, and drops retired keys that have expired.
+    @Scheduled(fixedDelayString = "${my.jwt.keys.reload-interval:PT30S}")
+    public synchronized void reloadIfChanged() {
+        try {
+            FileTime modifiedTime = keysFile != null ? Files.getLastModifiedTime(keysFile) : null;
+            if (modifiedTime != null && !modifiedTime.equals(keysFileModifiedTime)) {
+                keysFileModifiedTime = modifiedTime;    // A file that cannot be loaded is only reported once.
+                reload();
+                log.info("Reloaded signing keys from {}, signing with key {}", keysFile, getSigningKey().getKeyId());
+            } else if (state.hasRetiredKeysExpiredAt(System.currentTimeMillis())) {
+                state = buildState(state.getSigningKey(), state.getVerificationKeys());
+            }
+        } catch (IOException | RuntimeException e) {
+            // A key file being edited may be incomplete: the current keys stay in use until the file can be loaded.
+            log.warn("Could not reload the signing keys from {}, keeping the current keys", keysFile, e);
+        }
+    }
+
+    /*
+     * Loads the keys, from the key file if there is one or from the secret otherwise, and makes them current.
+     * Keys of the previous state that are no longer present are kept as retired keys. Throws if the key file cannot be
+     * read or holds an invalid key, in which case the current keys are left unchanged.
+     */
+    public synchronized void reload() throws IOException {
+        if (keysFile == null) {
+            SecretKey key = Keys.hmacShaKeyFor(secretKey.getBytes());
+            String algorithm = hmacAlgorithmFor(key);
+            state = buildState(new SigningKey(SECRET_KEY_ID, signatureAlgorithm(algorithm), key),
+                    Map.of(SECRET_KEY_ID, new VerificationKey(SECRET_KEY_ID, algorithm, key, null, Long.MAX_VALUE)));
+            return;
+        }
+
+        FileTime modifiedTime = Files.getLastModifiedTime(keysFile);
+        Map<String, VerificationKey> verificationKeys = new LinkedHashMap<>();
+        SigningKey signingKey = parseKeySet(Files.readString(keysFile), verificationKeys);
+
+        // Keeping the keys that were removed from the file until every token they signed has expired.
+        if (state != null) {
+            long retiredUntilMillis = System.currentTimeMillis() + retiredKeyValidity.toMillis();
+            state.getVerificationKeys().forEach((keyId, previousKey) ->
+                    verificationKeys.putIfAbsent(keyId, previousKey.retiredUntil(retiredUntilMillis)));
+        }
+
+        state = buildState(signingKey, verificationKeys);
+        keysFileModifiedTime = modifiedTime;
+    }
+
+    /*
+     * Parses a JWK Set document, adding the verification key of each key to the given map, and returns the signing key,
+     * i.e. the first key of the set. Throws an IllegalArgumentException if the document or any of its keys is invalid.
+     */
+    private SigningKey parseKeySet(String json, Map<String, VerificationKey> verificationKeys) throws IOException {
+        JsonNode keys = OBJECT_MAPPER.readTree(json).path("keys");
+        if (!keys.isArray() || keys.isEmpty()) {
+            throw new IllegalArgumentException("The key file must hold a non-empty \"keys\" array");
+        }
+
+        Parser<Jwk<?>> jwkParser = Jwks.parser().build();
+        SigningKey signingKey = null;
+        for (JsonNode keyNode : keys) {
+            Jwk<?> jwk = jwkParser.parse(keyNode.toString());
+            String keyId = jwk.getId();
+            String algorithm = jwk.getAlgorithm();
+            if (keyId == null || !SUPPORTED_ALGORITHMS.contains(algorithm)) {
+                throw new IllegalArgumentException("Every key needs a \"kid\" and one of the \"alg\" values " + SUPPORTED_ALGORITHMS);
+            }
+
+            // Secret keys both sign and verify; private keys sign and their public keys verify; public keys only verify.
+            Key key = jwk.toKey();
+            PublicJwk<?> publicJwk = null;
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                publicJwk = privateJwk.toPublicJwk();
+            } else if (jwk instanceof PublicJwk<?> publicOnlyJwk) {
+                publicJwk = publicOnlyJwk;
+            } else if (!(jwk instanceof SecretJwk)) {
+                throw new IllegalArgumentException("Unsupported key type for key " + keyId);
+            }
+
+            Key verifyWith = publicJwk != null ? publicJwk.toKey() : key;
+            if (verificationKeys.put(keyId, new VerificationKey(keyId, algorithm, verifyWith, publicJwk, Long.MAX_VALUE)) != null) {
+                throw new IllegalArgumentException("Duplicate key id " + keyId);
+            }
+
+            if (signingKey == null) {
+                if (jwk instanceof PublicJwk) {
+                    throw new IllegalArgumentException("The first key signs tokens, so it must be a secret or private key");
+                }
+                signingKey = new SigningKey(keyId, signatureAlgorithm(algorithm), key);
+                // Signing once up front, so that a key that does not fit its algorithm is rejected now, not on login.
+                Jwts.builder().subject(keyId).signWith(signingKey.getKey(), signingKey.getAlgorithm()).compact();
+            }
+        }
+        return signingKey;
+    }
+
+    // Builds an immutable state from the given keys, dropping retired keys that have expired.
+    private static KeyringState buildState(SigningKey signingKey, Map<String, VerificationKey> verificationKeys) {
+        long now = System.currentTimeMillis();
+        Map<String, VerificationKey> liveKeys = new LinkedHashMap<>();
+        List<String> publicJwks = new ArrayList<>();
+        verificationKeys.forEach((keyId, verificationKey) -> {
+            if (!verificationKey.isRetiredAt(now)) {
+                liveKeys.put(keyId, verificationKey);
+                if (verificationKey.getPublicJwk() != null) {
+                    publicJwks.add(Jwks.json(publishable(verificationKey)));
+                }
+            }
+        });
+
+        String jwks = "{\"keys\":[" + String.join(",", publicJwks) + "]}";
+        return new KeyringState(signingKey, Map.copyOf(liveKeys), jwks);
+    }
+
+    // Returns the public JWK of a key as published in the JWK Set document, with its key id, algorithm and usage.
+    private static PublicJwk<?> publishable(VerificationKey verificationKey) {
+        return Jwks.builder()
+                .key((PublicKey) verificationKey.getKey())
+                .id(verificationKey.getKeyId())
+                .algorithm(verificationKey.getAlgorithm())
+                .publicKeyUse("sig")
+                .build();
+    }
+
+    // Returns the HMAC algorithm that Keys.hmacShaKeyFor chose for the key, based on its length.
+    private static String hmacAlgorithmFor(SecretKey key) {
+        return switch (key.getAlgorithm()) {
+            case "HmacSHA512" -> "HS512";
+            case "HmacSHA384" -> "HS384";
+            default -> "HS256";
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, ?> signatureAlgorithm(String algorithm) {
+        return (SecureDigestAlgorithm<Key, ?>) Jwts.SIG.get().forKey(algorithm);
+    }
+
+    // The key that signs new tokens, with the key id written to the token header and the algorithm it signs with.
+    @Getter
+    @AllArgsConstructor
+    public static final class SigningKey {
+        private final String keyId;
+        private final SecureDigestAlgorithm<Key, ?> algorithm;
+        private final Key key;
+    }
+
+    // A key that verifies tokens, with its public JWK if it is published (asymmetric keys only).
+    @Getter
+    @AllArgsConstructor
+    private static final class VerificationKey {
+        private final String keyId;
+        private final String algorithm;
+        private final Key key;
+        private final PublicJwk<?> publicJwk;
+        private final long retiredUntilMillis;  // Long.MAX_VALUE while the key is in the key file.
+
+        boolean isRetiredAt(long nowMillis) {
+            return retiredUntilMillis <= nowMillis;
+        }
+
+        // Returns this key, retired at the given time unless it was already retired earlier.
+        VerificationKey retiredUntil(long untilMillis) {
+            return new VerificationKey(keyId, algorithm, key, publicJwk, Math.min(retiredUntilMillis, untilMillis));
+        }
+    }
+
+    // The keys in use at one point in time, along with their JWK Set document.
+    @Getter
+    @AllArgsConstructor
+    private static final class KeyringState {
+        private final SigningKey signingKey;
+        private final Map<String, VerificationKey> verificationKeys;
+        private final String jwks;
+
+        boolean hasRetiredKeysExpiredAt(long nowMillis) {
+            return verificationKeys.values().stream().anyMatch(key -> key.isRetiredAt(nowMillis));
+        }
+    }
+}
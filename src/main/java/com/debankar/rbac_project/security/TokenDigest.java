@@ -0,0 +1,53 @@
+package com.debankar.rbac_project.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/*
+ * This class represents the fixed-length SHA-256 digest of a JWT token string.
+ * It is used as a compact, comparable key for a token, so the full token string does not have to be kept or compared.
+ */
+public final class TokenDigest {
+    public static final int LENGTH = 32;    // The length, in bytes, of a SHA-256 digest.
+
+    private final byte[] bytes;     // The 32 bytes of the SHA-256 digest.
+    private final int hash;         // Cached hash code, taken from the (uniformly distributed) digest bytes.
+
+    private TokenDigest(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    // Computes the digest of the given token string.
+    public static TokenDigest of(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return new TokenDigest(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256, so this cannot happen in practice.
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Wraps digest bytes previously obtained from toBytes(), e.g. as stored in the Token table.
+    public static TokenDigest fromBytes(byte[] bytes) {
+        return new TokenDigest(bytes.clone());
+    }
+
+    // Returns a copy of the digest bytes.
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TokenDigest other && Arrays.equals(bytes, other.bytes));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
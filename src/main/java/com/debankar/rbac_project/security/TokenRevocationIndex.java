@@ -0,0 +1,89 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.repository.TokenRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * This component keeps an in-memory index of revoked access tokens, keyed by their SHA-256 digest. Refresh tokens are
+ * checked against the Token table when they are used, so they are not held here, and revoking all the tokens of a user
+ * or a role is done by RevocationEpochs instead.
+ * It lets the authentication filter check for revocation without a database query. The Token table remains the durable
+ * record of revocations: the index is rebuilt from it at startup, before the web server accepts requests, and every
+ * revocation is written to both.
+ * An entry is only needed until the token's own expiry, after which the token is rejected by JWT verification anyway.
+ */
+@Component
+public class TokenRevocationIndex implements SmartInitializingSingleton {
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRepository tokenRepository;
+
+    // Revoked token digests mapped to the expiry time (epoch millis) of the corresponding token.
+    private final Map<TokenDigest, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    public TokenRevocationIndex(JwtTokenProvider jwtTokenProvider, TokenRepository tokenRepository) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenRepository = tokenRepository;
+    }
+
+    /*
+     * Rebuilds the index once all singletons are created, i.e. during context initialization, before the web server is
+     * started: a token revoked before a restart is thus rejected from the very first request.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    // Rebuilds the index from the revoked, unexpired tokens stored in the Token table.
+    public void rebuild() {
+        revokedTokens.clear();
+        tokenRepository.findRevokedTokensUnexpiredAt(Instant.now()).forEach(revokedToken ->
+                revoke(TokenDigest.fromBytes(revokedToken.getTokenHash()), revokedToken.getExpiresAt()));
+    }
+
+    /*
+     * Records the token with the given digest as revoked until the given expiry time.
+     * If the expiry time is not known (null), the entry is kept until the latest time at which any access token issued
+     * up to now can expire.
+     */
+    public void revoke(TokenDigest digest, Instant expiresAt) {
+        long expiresAtMillis = expiresAt != null
+                ? expiresAt.toEpochMilli()
+                : System.currentTimeMillis() + jwtTokenProvider.getAccessTokenValidity().toMillis();
+
+        if (expiresAtMillis > System.currentTimeMillis()) {
+            revokedTokens.put(digest, expiresAtMillis);
+        }
+    }
+
+    // Returns true if the token with the given digest has been revoked and has not yet expired.
+    public boolean isRevoked(TokenDigest digest) {
+        Long expiresAtMillis = revokedTokens.get(digest);
+        if (expiresAtMillis == null) {
+            return false;
+        }
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            revokedTokens.remove(digest, expiresAtMillis);  // The token expired, so its entry is no longer needed.
+            return false;
+        }
+        return true;
+    }
+
+    // Returns the number of revoked, unexpired tokens currently held in memory.
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    // Periodically drops the entries of tokens that have expired, so the index only holds live revocations.
+    @Scheduled(fixedDelayString = "${my.token-revocation.sweep-interval:PT1M}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAtMillis -> expiresAtMillis <= now);
+    }
+}
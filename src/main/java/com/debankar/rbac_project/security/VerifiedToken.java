@@ -0,0 +1,27 @@
+package com.debankar.rbac_project.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/*
+ * This class holds the result of a single, successful JWT verification.
+ * The token's signature and expiry have already been checked when an instance exists, so callers can read the subject,
+ * timestamps and custom claims from it without parsing the token again.
+ */
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+    private final String token;         // The compact JWT string that was verified.
+    private final String subject;       // The subject of the token (username/email).
+    private final Date issuedAt;        // The time at which the token was issued.
+    private final Date expiration;      // The time after which the token is no longer accepted.
+    private final Claims claims;        // All claims of the token, including custom ones.
+
+    // Returns a custom claim converted to the requested type, or null if the claim is absent.
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+}
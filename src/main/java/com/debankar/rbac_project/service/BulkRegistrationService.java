@@ -0,0 +1,190 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.dto.BulkRegistrationResultDTO;
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.mapper.UserMapper;
+import com.debankar.rbac_project.repository.UserRepository;
+import com.debankar.rbac_project.security.BoundedPasswordEncoder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+ * This service registers many users at once, e.g. when onboarding all accounts of a customer.
+ * Records are processed in chunks: each chunk is validated, its passwords are hashed in parallel, and its users and
+ * role rows are inserted in a single transaction using JDBC batches. Records that fail validation or whose email is
+ * already registered are reported back instead of failing the whole request. An email registered concurrently
+ * between the check and the insert makes the chunk roll back; its record is then rejected and the chunk retried.
+ * Unlike single registration, no tokens are issued; the users obtain tokens by logging in.
+ */
+@Service
+public class BulkRegistrationService {
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserMapper userMapper;
+    private final Validator validator;
+    private final CustomUserDetailsService userDetailsService;
+    private final int chunkSize;    // Number of users inserted per transaction.
+
+    public BulkRegistrationService(UserRepository userRepository, BoundedPasswordEncoder passwordEncoder, UserMapper userMapper,
+                                   Validator validator, CustomUserDetailsService userDetailsService,
+                                   @Value("${my.bulk-registration.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userMapper = userMapper;
+        this.validator = validator;
+        this.userDetailsService = userDetailsService;
+        this.chunkSize = chunkSize;
+    }
+
+    /*
+     * Registers the users read from the given iterator, which may be a stream that is consumed one chunk at a time.
+     * Chunks are committed independently, so users of earlier chunks stay registered if a later chunk fails.
+     */
+    public BulkRegistrationResultDTO registerUsers(Iterator<UserCreationDTO> userDTOs) {
+        List<BulkRegistrationResultDTO.Rejection> rejected = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();   // Catches duplicates within the request, across chunks.
+        int created = 0;
+        int index = 0;
+
+        while (userDTOs.hasNext()) {
+            List<UserCreationDTO> chunk = new ArrayList<>(chunkSize);
+            List<Integer> indexes = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize && userDTOs.hasNext()) {
+                chunk.add(userDTOs.next());
+                indexes.add(index++);
+            }
+            created += registerChunk(chunk, indexes, seenEmails, rejected);
+        }
+
+        rejected.sort(Comparator.comparingInt(BulkRegistrationResultDTO.Rejection::getIndex));
+        return new BulkRegistrationResultDTO(created, rejected);
+    }
+
+    // Registers the valid, new users of one chunk and returns how many were created.
+    private int registerChunk(List<UserCreationDTO> chunk, List<Integer> indexes, Set<String> seenEmails,
+                              List<BulkRegistrationResultDTO.Rejection> rejected) {
+        List<UserCreationDTO> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserCreationDTO userDTO = chunk.get(i);
+            String error = validate(userDTO);
+            if (error == null && !seenEmails.add(userDTO.getEmail())) {
+                error = "Duplicate email in request";
+            }
+            if (error != null) {
+                String email = userDTO != null ? userDTO.getEmail() : null;
+                rejected.add(new BulkRegistrationResultDTO.Rejection(indexes.get(i), email, error));
+            } else {
+                accepted.add(userDTO);
+                acceptedIndexes.add(indexes.get(i));
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        // Checking the whole chunk against already registered emails with one query.
+        List<Integer> newPositions = rejectExisting(accepted, acceptedIndexes, rejected);
+        List<UserCreationDTO> newUsers = select(accepted, newPositions);
+        List<Integer> newIndexes = select(acceptedIndexes, newPositions);
+        if (newUsers.isEmpty()) {
+            return 0;
+        }
+
+        // Password hashing dominates the cost of registration, so it is spread over all hashing threads.
+        List<String> encodedPasswords = passwordEncoder.encodeAll(newUsers.stream().map(UserCreationDTO::getPassword).toList());
+
+        while (true) {
+            List<User> users = new ArrayList<>(newUsers.size());
+            for (int i = 0; i < newUsers.size(); i++) {
+                users.add(toUser(newUsers.get(i), encodedPasswords.get(i)));
+            }
+            try {
+                userRepository.saveAll(users);  // One transaction; users and role rows are inserted in JDBC batches.
+                users.forEach(user -> userDetailsService.evict(user.getEmail()));
+                return users.size();
+            } catch (DataIntegrityViolationException e) {
+                /*
+                 * An email was registered concurrently (by a single registration or another bulk request) after the
+                 * check above, so the chunk was rolled back. The raced records are rejected and the rest of the chunk
+                 * is retried with fresh entities, as the rolled back ones already carry ids. If no email was raced,
+                 * the violation has another cause and is not retried.
+                 */
+                List<Integer> remainingPositions = rejectExisting(newUsers, newIndexes, rejected);
+                if (remainingPositions.size() == newUsers.size()) {
+                    throw e;
+                }
+                if (remainingPositions.isEmpty()) {
+                    return 0;
+                }
+                newUsers = select(newUsers, remainingPositions);
+                newIndexes = select(newIndexes, remainingPositions);
+                encodedPasswords = select(encodedPasswords, remainingPositions);
+            }
+        }
+    }
+
+    /*
+     * Rejects the given records whose email is already registered, looked up with one query, and returns the positions
+     * of the other records within the given list.
+     */
+    private List<Integer> rejectExisting(List<UserCreationDTO> userDTOs, List<Integer> indexes,
+                                         List<BulkRegistrationResultDTO.Rejection> rejected) {
+        Set<String> existingEmails = userRepository.findExistingEmails(
+                userDTOs.stream().map(UserCreationDTO::getEmail).toList());
+        List<Integer> newPositions = new ArrayList<>(userDTOs.size());
+        for (int i = 0; i < userDTOs.size(); i++) {
+            UserCreationDTO userDTO = userDTOs.get(i);
+            if (existingEmails.contains(userDTO.getEmail())) {
+                rejected.add(new BulkRegistrationResultDTO.Rejection(indexes.get(i), userDTO.getEmail(), "Email already exists!"));
+            } else {
+                newPositions.add(i);
+            }
+        }
+        return newPositions;
+    }
+
+    // Returns the elements of the list at the given positions.
+    private static <T> List<T> select(List<T> list, List<Integer> positions) {
+        return positions.stream().map(list::get).toList();
+    }
+
+    // Maps a record to a new User entity with the encoded password and, if none are given, the default USER role.
+    private User toUser(UserCreationDTO userDTO, String encodedPassword) {
+        User user = userMapper.toUser(userDTO);
+        user.setPassword(encodedPassword);
+        if (user.getRoles() == null || user.getRoles().isEmpty()) {
+            user.setRoles(Set.of(Role.USER));
+        }
+        return user;
+    }
+
+    // Returns the validation errors of a record as one message, or null if the record is valid.
+    private String validate(UserCreationDTO userDTO) {
+        if (userDTO == null) {
+            return "Record is empty";
+        }
+        Set<ConstraintViolation<UserCreationDTO>> violations = validator.validate(userDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -2,45 +2,95 @@ package com.debankar.rbac_project.service;
 
 import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.repository.UserRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.debankar.rbac_project.security.RoleAuthorities;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /*
  * This service implements Spring Security's UserDetailsService interface.
  * It is responsible for loading user-specific data during authentication based on their email.
+ * Loaded user details are kept in a size-bounded cache with a time-to-live, which must be invalidated (see evict) by
+ * anything that changes a user's roles or password.
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    /*
+     * Cache of user details keyed by email. Values are futures so that concurrent misses for the same email wait for
+     * a single load, while the load itself runs outside the cache's internal locks.
+     */
+    private final AsyncCache<String, UserDetails> userDetailsCache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${my.user-details-cache.maximum-size:10000}") long maximumSize,
+                                    @Value("${my.user-details-cache.time-to-live:PT5M}") Duration timeToLive) {
         this.userRepository = userRepository;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)           // Evicts the least valuable entries beyond this size
+                .expireAfterWrite(timeToLive)       // Reloads entries at least this often
+                .recordStats()                      // Tracks hit, miss and eviction counts
+                .buildAsync();
     }
 
     // Loads user details by email, which acts as the username in this context.
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        CompletableFuture<UserDetails> userDetails = userDetailsCache.getIfPresent(email);
+
+        if (userDetails == null) {
+            // Registering our own pending load, unless a concurrent request has registered one first.
+            CompletableFuture<UserDetails> loading = new CompletableFuture<>();
+            userDetails = userDetailsCache.asMap().putIfAbsent(email, loading);
+
+            if (userDetails == null) {
+                userDetails = loading;
+                try {
+                    loading.complete(loadFromRepository(email));
+                } catch (RuntimeException e) {
+                    loading.completeExceptionally(e);   // Failed loads are removed from the cache automatically.
+                }
+            }
+        }
+
+        try {
+            return userDetails.join();
+        } catch (CompletionException e) {
+            // Rethrowing the original exception (e.g. UsernameNotFoundException) of the load.
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Removes the cached user details for the given email, so the next request loads them again.
+    public void evict(String email) {
+        userDetailsCache.synchronous().invalidate(email);
+    }
+
+    // Returns the hit, miss and eviction counts of the user details cache.
+    public CacheStats getCacheStats() {
+        return userDetailsCache.synchronous().stats();
+    }
+
+    private UserDetails loadFromRepository(String email) {
         // Retrieving a user by email from the repository. If not found, we throw an exception.
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        // Mapping the user's roles to GrantedAuthority objects, which are used by Spring Security for authorization.
-        Set<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
-                .collect(Collectors.toSet());
-
         // Building a UserDetails object that Spring Security uses for authentication.
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())      // Sets the username (email)
                 .password(user.getPassword())   // Sets the password (hashed)
-                .authorities(authorities)       // Sets the user's authorities (roles)
+                .authorities(RoleAuthorities.of(user.getRoles()))   // Sets the user's authorities (roles), shared by all users with the same roles
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,12 @@ package com.debankar.rbac_project.service;
 
 import com.debankar.rbac_project.repository.TokenRepository;
 import com.debankar.rbac_project.entity.token.Token;
+import com.debankar.rbac_project.enums.TokenType;
+import com.debankar.rbac_project.security.AuthMetrics;
+import com.debankar.rbac_project.security.AuthMetrics.Operation;
+import com.debankar.rbac_project.security.AuthMetrics.Phase;
+import com.debankar.rbac_project.security.TokenDigest;
+import com.debankar.rbac_project.security.TokenRevocationIndex;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -13,25 +19,33 @@ import java.util.Optional;
 
 /*
  * This service handles logout operations, including invalidating JWT tokens.
+ * Logging out revokes the presented token (an access token, or a refresh token if the access token has expired) and
+ * every refresh token of its user, so that the session cannot be renewed afterwards.
  * It implements Spring Security's LogoutHandler interface to provide custom logout logic.
  */
 @Service
 @RequiredArgsConstructor
 public class LogoutService implements LogoutHandler {
     private final TokenRepository tokenRepository;
+    private final TokenRevocationIndex tokenRevocationIndex;
+    private final AuthMetrics authMetrics;
 
     @Override
     public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        long startNanos = System.nanoTime();
+
         // Retrieving the Authorization header from the request to extract the bearer token.
         String bearerToken = request.getHeader("Authorization");
 
         // Checking if the bearer token is present and properly formatted.
         if ((bearerToken == null) || !bearerToken.startsWith("Bearer ")) {
+            authMetrics.recordServiceOutcome(Operation.LOGOUT, "missing", startNanos);
             return;
         }
 
         String token = bearerToken.substring(7);    // Extracting the actual token string from the bearer token.
-        Optional<Token> optionalToken = tokenRepository.findByToken(token); // Retrieving the token from repository.
+        // Retrieving the token from repository by its digest, as the token string itself is not stored.
+        Optional<Token> optionalToken = tokenRepository.findByTokenHash(TokenDigest.of(token).toBytes());
 
         if (optionalToken.isPresent()) {    // Checking if the token exists.
             Token storedToken = optionalToken.get();
@@ -40,6 +54,16 @@ public class LogoutService implements LogoutHandler {
             storedToken.setRevoked(true);       // Marks the token as revoked to prevent further use.
 
             tokenRepository.save(storedToken);  // Saves the updated token state back to the repository.
+            // Revokes the user's refresh tokens, which would otherwise still be exchangeable for new access tokens.
+            tokenRepository.revokeAllValidTokensByUserIdAndTokenType(storedToken.getUser().getId(), TokenType.REFRESH);
+
+            if (storedToken.getTokenType() != TokenType.REFRESH) {
+                // Makes the revocation visible to the authentication filter.
+                tokenRevocationIndex.revoke(TokenDigest.of(token), storedToken.getExpiresAt());
+            }
         }
+
+        authMetrics.recordServicePhase(Operation.LOGOUT, Phase.DATABASE, System.nanoTime() - startNanos);
+        authMetrics.recordServiceOutcome(Operation.LOGOUT, optionalToken.isPresent() ? "revoked" : "unknown-token", startNanos);
     }
 }
@@ -0,0 +1,100 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.repository.TokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This service periodically deletes Token rows whose tokens have expired.
+ * A new row is written on every login and registration, and an expired token can never be accepted again, so such rows
+ * only slow down lookups and revocations. Rows are deleted in bounded batches, each in its own short transaction, and
+ * the deletion rate is capped so that purging does not contend with login traffic for locks.
+ */
+@Slf4j
+@Service
+public class TokenPurgeService {
+    private final TokenRepository tokenRepository;
+    private final int batchSize;                // Maximum number of rows deleted by one statement.
+    private final int maxRowsPerSecond;         // Maximum average deletion rate within a pass.
+    private final Duration retention;           // How long a row is kept after its token expired.
+
+    public TokenPurgeService(TokenRepository tokenRepository,
+                             @Value("${my.token-purge.batch-size:500}") int batchSize,
+                             @Value("${my.token-purge.max-rows-per-second:5000}") int maxRowsPerSecond,
+                             @Value("${my.token-purge.retention:PT0S}") Duration retention) {
+        if (batchSize <= 0 || maxRowsPerSecond <= 0) {
+            throw new IllegalArgumentException("Token purge batch size and maximum rate must be positive!");
+        }
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.retention = retention;
+    }
+
+    /*
+     * Runs a purge pass on the configured schedule. A throttled pass sleeps on its scheduler thread, so the scheduler
+     * has a thread for each scheduled job (spring.task.scheduling.pool.size) and the other jobs are not held up.
+     */
+    @Scheduled(initialDelayString = "${my.token-purge.interval:PT10M}", fixedDelayString = "${my.token-purge.interval:PT10M}")
+    public void purgeOnSchedule() {
+        purgeExpiredTokens();
+    }
+
+    /*
+     * Deletes the rows of all tokens that expired before now (minus the retention period), in batches, and returns the
+     * number of rows deleted. The pass stops early if the thread is interrupted.
+     */
+    public int purgeExpiredTokens() {
+        Instant cutoff = Instant.now().minus(retention);
+        long startNanos = System.nanoTime();
+        int deleted = 0;
+        int batches = 0;
+
+        while (true) {
+            List<Long> expiredIds = tokenRepository.findIdsExpiredBefore(cutoff, PageRequest.of(0, batchSize));
+            if (expiredIds.isEmpty()) {
+                break;
+            }
+
+            tokenRepository.deleteAllByIdInBatch(expiredIds);   // A single DELETE ... WHERE id IN (...) statement.
+            deleted += expiredIds.size();
+            batches++;
+
+            if (expiredIds.size() < batchSize || !throttle(deleted, startNanos)) {
+                break;
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("Purged {} expired token rows in {} batches, taking {} ms", deleted, batches, elapsedMillis);
+        return deleted;
+    }
+
+    /*
+     * Sleeps for as long as needed to keep the average deletion rate of this pass under the configured limit.
+     * Returns false if the thread was interrupted, in which case the pass should stop.
+     */
+    private boolean throttle(int deleted, long startNanos) {
+        long targetNanos = TimeUnit.SECONDS.toNanos(deleted) / maxRowsPerSecond;
+        long aheadNanos = targetNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos <= 0) {
+            return true;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.debankar.rbac_project.service;
 
+import com.debankar.rbac_project.dto.TokenPairDTO;
 import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.dto.UserPageDTO;
 import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
 
 import java.util.List;
+import java.util.Set;
 
 /*
  * This interface defines the contract for user-related operations.
  * It abstracts the business logic related to user management, allowing for different implementations.
  */
 public interface UserService {
+    // The largest page size accepted by findPage.
+    int MAX_PAGE_SIZE = 1000;
+
     /*
      * Registers a new user based on the provided UserCreationDTO.
      * This method is responsible for validating input data and ensuring that business rules are followed.
@@ -18,9 +25,16 @@ public interface UserService {
 
     /*
      * Authenticates a user based on their email and password.
-     * This method should validate credentials and generate a JWT token upon successful authentication.
+     * This method should validate credentials and generate a JWT access token and a refresh token upon successful
+     * authentication.
+     */
+    TokenPairDTO authenticate(String email, String password);
+
+    /*
+     * Exchanges a refresh token for a new access token and a new refresh token. Each refresh token can be used once:
+     * presenting one that was already used revokes all of its user's tokens, as it may have been stolen.
      */
-    String authenticate(String email, String password);
+    TokenPairDTO refresh(String refreshToken);
 
     // Finds a user by their unique identifier (userId).
     User findByUserId(Long userId);
@@ -30,4 +44,28 @@ public interface UserService {
 
     // Retrieves all users from the system.
     List<User> findAll();
+
+    /*
+     * Retrieves one page of users, ordered by id, starting after the user with the given id (keyset pagination).
+     * The page holds at most "limit" users (capped at MAX_PAGE_SIZE), optionally only those with the given role.
+     */
+    UserPageDTO findPage(Long afterId, int limit, Role role);
+
+    /*
+     * Replaces the roles of the user with the given identifier.
+     * All tokens previously issued to the user are revoked, so that no token carrying the old roles remains usable.
+     */
+    User updateRoles(Long userId, Set<Role> roles);
+
+    /*
+     * Signs the user with the given identifier out everywhere, by revoking all of the user's tokens.
+     * Returns the number of refresh tokens revoked; access tokens are revoked all at once, without being counted.
+     */
+    int signOutEverywhere(Long userId);
+
+    /*
+     * Signs every user with the given role out everywhere, by revoking all of their tokens.
+     * Returns the number of refresh tokens revoked; access tokens are revoked all at once, without being counted.
+     */
+    int signOutRole(Role role);
 }
@@ -1,18 +1,37 @@
 package com.debankar.rbac_project.service;
 
+import com.debankar.rbac_project.dto.TokenPairDTO;
 import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.dto.UserDTO;
+import com.debankar.rbac_project.dto.UserPageDTO;
+import com.debankar.rbac_project.dto.UserSummaryDTO;
 import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.enums.Role;
 import com.debankar.rbac_project.enums.TokenType;
 import com.debankar.rbac_project.mapper.UserMapper;
 import com.debankar.rbac_project.repository.TokenRepository;
 import com.debankar.rbac_project.repository.UserRepository;
+import com.debankar.rbac_project.security.AuthMetrics;
+import com.debankar.rbac_project.security.AuthMetrics.Operation;
+import com.debankar.rbac_project.security.AuthMetrics.Phase;
+import com.debankar.rbac_project.security.IssuedToken;
 import com.debankar.rbac_project.security.JwtTokenProvider;
+import com.debankar.rbac_project.security.PasswordHashingRejectedException;
+import com.debankar.rbac_project.security.RevocationEpochs;
+import com.debankar.rbac_project.security.TokenDigest;
 import com.debankar.rbac_project.entity.token.Token;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -27,26 +46,45 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RevocationEpochs revocationEpochs;
+    private final CustomUserDetailsService userDetailsService;
+    private final AuthMetrics authMetrics;
 
     // Constructor-based dependency injection to ensure all required services are provided.
-    public UserServiceImpl(UserRepository userRepository, TokenRepository tokenRepository, PasswordEncoder passwordEncoder, UserMapper userMapper, JwtTokenProvider jwtTokenProvider) {
+    public UserServiceImpl(UserRepository userRepository, TokenRepository tokenRepository, PasswordEncoder passwordEncoder, UserMapper userMapper, JwtTokenProvider jwtTokenProvider, RevocationEpochs revocationEpochs, CustomUserDetailsService userDetailsService, AuthMetrics authMetrics) {
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.revocationEpochs = revocationEpochs;
+        this.userDetailsService = userDetailsService;
+        this.authMetrics = authMetrics;
     }
 
     @Override
     public User registerUser(UserCreationDTO userDTO) {
+        long startNanos = System.nanoTime();
+
         // Checking if the email already exists in the repository to prevent duplicate registrations.
         if (userRepository.existsByEmail(userDTO.getEmail())) {
+            authMetrics.recordServicePhase(Operation.REGISTRATION, Phase.DATABASE, System.nanoTime() - startNanos);
+            authMetrics.recordServiceOutcome(Operation.REGISTRATION, "email-exists", startNanos);
             throw new IllegalArgumentException("Email already exists!");
         }
+        long hashStartNanos = System.nanoTime();
 
         // Mapping the incoming DTO to a User entity and encoding the user's password for security.
         User user = userMapper.toUser(userDTO);
-        user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+        try {
+            user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+        } catch (PasswordHashingRejectedException e) {
+            // The hashing executor is saturated: the registration is shed, and answered with 503.
+            authMetrics.recordServicePhase(Operation.REGISTRATION, Phase.HASHING, System.nanoTime() - hashStartNanos);
+            authMetrics.recordServiceOutcome(Operation.REGISTRATION, "rejected", startNanos);
+            throw e;
+        }
+        long hashNanos = System.nanoTime() - hashStartNanos;
 
         // Setting default role as USER if no roles are specified during registration.
         if (user.getRoles() == null || user.getRoles().isEmpty()) {
@@ -54,59 +92,165 @@ public class UserServiceImpl implements UserService {
         }
 
         User savedUser = userRepository.save(user);
+        userDetailsService.evict(savedUser.getEmail());     // Drops any user details cached for this email.
 
         // Generating a JWT token for the user.
-        String jwtToken = jwtTokenProvider.generateToken(user.getEmail());
+        IssuedToken jwtToken = issueAccessToken(savedUser);
         saveUserToken(savedUser, jwtToken);
 
+        // Everything but hashing is database work, apart from the comparatively negligible token signing.
+        authMetrics.recordServicePhase(Operation.REGISTRATION, Phase.HASHING, hashNanos);
+        authMetrics.recordServicePhase(Operation.REGISTRATION, Phase.DATABASE, System.nanoTime() - startNanos - hashNanos);
+        authMetrics.recordServiceOutcome(Operation.REGISTRATION, "success", startNanos);
+
         return user;    // Returns the newly registered user entity.
     }
 
     @Override
-    public String authenticate(String email, String password) {
+    public TokenPairDTO authenticate(String email, String password) {
+        long startNanos = System.nanoTime();
+
         // Retrieving the user by email and checking if the provided password matches the stored hash.
         Optional<User> userOptional = userRepository.findByEmail(email);
-        if (userOptional.isEmpty() || !passwordEncoder.matches(password, userOptional.get().getPassword())) {
+        long hashStartNanos = System.nanoTime();
+        boolean matches;
+        try {
+            matches = userOptional.isPresent() && passwordEncoder.matches(password, userOptional.get().getPassword());
+        } catch (PasswordHashingRejectedException e) {
+            // The hashing executor is saturated: the login is shed, and answered with 503.
+            recordLogin("rejected", startNanos, System.nanoTime() - hashStartNanos);
+            throw e;
+        }
+        long hashNanos = System.nanoTime() - hashStartNanos;
+        if (!matches) {
+            recordLogin("invalid-credentials", startNanos, hashNanos);
             throw new IllegalArgumentException("Invalid email or password!");
         }
 
         User user = userOptional.get();
+        hashNanos += upgradePasswordHash(user, password);
 
-        // Generating a JWT token upon successful authentication
-        String jwtToken = jwtTokenProvider.generateToken(user.getEmail());
         revokeAllUserTokens(user);      // Revoking previous tokens to prevent reuse after login.
-        saveUserToken(user, jwtToken);  // Saving the new token in the repository.
+        // Generating a JWT access token and a refresh token upon successful authentication
+        TokenPairDTO tokens = issueTokenPair(user);
 
-        return jwtToken;    // Returns the newly generated JWT token for authenticated sessions.
+        recordLogin("success", startNanos, hashNanos);
+        return tokens;      // Returns the newly generated tokens for authenticated sessions.
     }
 
-    // Creates a new Token entity representing the user's JWT token with relevant details.
-    private void saveUserToken(User user, String jwtToken) {
-        Token token = Token.builder()
-                .user(user)
-                .token(jwtToken)
-                .tokenType(TokenType.BEARER)
-                .revoked(false)     // Indicates that this token is active initially.
-                .expired(false)     // Indicates that this token is not expired initially.
-                .build();
+    /*
+     * Consuming the presented token and saving the new pair form one transaction, so a failure to issue the new pair
+     * leaves the presented token usable. A rejected token is reported with IllegalArgumentException, which does not
+     * roll back: the revocation that follows the reuse of a consumed token must stick.
+     */
+    @Override
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public TokenPairDTO refresh(String refreshToken) {
+        long startNanos = System.nanoTime();
+
+        // Retrieving the refresh token by its digest; access tokens are never accepted here.
+        Optional<Token> storedToken = tokenRepository.findByTokenHash(TokenDigest.of(refreshToken).toBytes())
+                .filter(token -> token.getTokenType() == TokenType.REFRESH);
+        if (storedToken.isEmpty() || !storedToken.get().getExpiresAt().isAfter(Instant.now())) {
+            recordRefresh("invalid", startNanos);
+            throw new IllegalArgumentException("Invalid refresh token!");
+        }
 
-        tokenRepository.save(token);
+        Token token = storedToken.get();
+        User user = token.getUser();
+
+        // Using the token up with a conditional update, so that of two concurrent refreshes only one succeeds.
+        if (tokenRepository.revokeIfValid(token.getId()) == 0) {
+            // The token was already used or revoked: whoever presents it may have stolen it, so the user must log in again.
+            revokeAllUserTokens(user);
+            recordRefresh("reused", startNanos);
+            throw new IllegalArgumentException("Invalid refresh token!");
+        }
+
+        TokenPairDTO tokens = issueTokenPair(user);     // Rotating the refresh token along with the access token.
+        recordRefresh("success", startNanos);
+        return tokens;
     }
 
-    private void revokeAllUserTokens(User user) {
-        // Retrieving all valid tokens associated with the specified user from the repository.
-        List<Token> validUserTokens = tokenRepository.findAllValidTokensByUserId(user.getId());
+    // Records the outcome of a token refresh, whose time is all database work apart from the token signing.
+    private void recordRefresh(String outcome, long startNanos) {
+        authMetrics.recordServicePhase(Operation.REFRESH, Phase.DATABASE, System.nanoTime() - startNanos);
+        authMetrics.recordServiceOutcome(Operation.REFRESH, outcome, startNanos);
+    }
 
-        if (validUserTokens.isEmpty()) {
-            return;
+    // Generates an access token and a refresh token for the user, and saves both in the repository at once.
+    private TokenPairDTO issueTokenPair(User user) {
+        IssuedToken accessToken = issueAccessToken(user);
+        IssuedToken refreshToken = jwtTokenProvider.issueRefreshToken();
+
+        tokenRepository.saveAll(List.of(
+                buildUserToken(user, accessToken, TokenType.BEARER),
+                buildUserToken(user, refreshToken, TokenType.REFRESH)));
+
+        return new TokenPairDTO(accessToken.getToken(), refreshToken.getToken());
+    }
+
+    // Generates an access token for the user, carrying the versions under which RevocationEpochs can revoke it.
+    private IssuedToken issueAccessToken(User user) {
+        return jwtTokenProvider.issueToken(user, revocationEpochs.claimsFor(user.getEmail(), user.getRoles()));
+    }
+
+    // Records the outcome of a login, splitting its time into password hashing and (everything else) database work.
+    private void recordLogin(String outcome, long startNanos, long hashNanos) {
+        authMetrics.recordServicePhase(Operation.LOGIN, Phase.HASHING, hashNanos);
+        authMetrics.recordServicePhase(Operation.LOGIN, Phase.DATABASE, System.nanoTime() - startNanos - hashNanos);
+        authMetrics.recordServiceOutcome(Operation.LOGIN, outcome, startNanos);
+    }
+
+    /*
+     * Rehashes the user's password with the current algorithm and cost if the stored hash uses older ones.
+     * This is best-effort: if the hashing executor is saturated, the upgrade is left for a later login.
+     * Returns the time spent hashing, in nanos.
+     */
+    private long upgradePasswordHash(User user, String password) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return 0;
         }
 
-        validUserTokens.forEach(token -> {
-            token.setExpired(true);     // Marks each valid token as expired.
-            token.setRevoked(true);     // Marks each valid token as revoked to prevent further use.
-        });
+        long hashStartNanos = System.nanoTime();
+        try {
+            user.setPassword(passwordEncoder.encode(password));
+        } catch (PasswordHashingRejectedException e) {
+            return System.nanoTime() - hashStartNanos;
+        }
+        long hashNanos = System.nanoTime() - hashStartNanos;
+
+        userRepository.save(user);
+        userDetailsService.evict(user.getEmail());  // Cached user details hold the previous hash.
+        return hashNanos;
+    }
 
-        tokenRepository.saveAll(validUserTokens);   // Saves all updated tokens back to the repository in bulk.
+    // Saves a new Token entity representing the user's JWT token with relevant details.
+    private void saveUserToken(User user, IssuedToken jwtToken) {
+        tokenRepository.save(buildUserToken(user, jwtToken, TokenType.BEARER));
+    }
+
+    // Creates a new Token entity representing one of the user's tokens, of the given type, with relevant details.
+    private Token buildUserToken(User user, IssuedToken jwtToken, TokenType tokenType) {
+        return Token.builder()
+                .user(user)
+                .tokenHash(TokenDigest.of(jwtToken.getToken()).toBytes())   // Only the token's digest is stored.
+                .tokenType(tokenType)
+                .issuedAt(jwtToken.getIssuedAt())
+                .expiresAt(jwtToken.getExpiresAt())     // Allows the row to be purged once the token has expired.
+                .revoked(false)     // Indicates that this token is active initially.
+                .expired(false)     // Indicates that this token is not expired initially.
+                .build();
+    }
+
+    /*
+     * Revokes all of the user's tokens, and returns the number of refresh tokens revoked.
+     * Access tokens are all revoked at once by advancing the user's token version, with a single write and no per-token
+     * work. Refresh tokens are looked up in the Token table when used, so they are revoked there, with one UPDATE.
+     */
+    private int revokeAllUserTokens(User user) {
+        revocationEpochs.revokeUser(user);
+        return tokenRepository.revokeAllValidTokensByUserIdAndTokenType(user.getId(), TokenType.REFRESH);
     }
 
     @Override
@@ -125,4 +269,68 @@ public class UserServiceImpl implements UserService {
     public List<User> findAll() {
         return userRepository.findAll();
     }
+
+    @Override
+    public UserPageDTO findPage(Long afterId, int limit, Role role) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1!");
+        }
+
+        long after = afterId != null ? afterId : 0L;
+        Pageable firstRows = PageRequest.of(0, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Seeking past the last id of the previous page, instead of skipping an offset, keeps every page equally cheap.
+        List<UserSummaryDTO> users = role != null
+                ? userRepository.findPageAfterWithRole(after, role, firstRows)
+                : userRepository.findPageAfter(after, firstRows);
+
+        if (users.isEmpty()) {
+            return new UserPageDTO(List.of(), null);
+        }
+
+        // Loading the roles of all users of the page with a single query.
+        Map<Long, Set<Role>> rolesByUserId = new HashMap<>();
+        userRepository.findRolesByUserIds(users.stream().map(UserSummaryDTO::getId).toList())
+                .forEach(userRole -> rolesByUserId
+                        .computeIfAbsent(userRole.getUserId(), id -> EnumSet.noneOf(Role.class))
+                        .add(userRole.getRole()));
+
+        List<UserDTO> page = users.stream()
+                .map(user -> userMapper.toUserDTO(user, rolesByUserId.getOrDefault(user.getId(), Set.of())))
+                .toList();
+
+        // A short page is the last one; otherwise the next page starts after the last user of this one.
+        Long nextCursor = users.size() < firstRows.getPageSize() ? null : users.get(users.size() - 1).getId();
+
+        return new UserPageDTO(page, nextCursor);
+    }
+
+    @Override
+    public User updateRoles(Long userId, Set<Role> roles) {
+        if (roles == null || roles.isEmpty()) {
+            throw new IllegalArgumentException("At least one role is required!");
+        }
+
+        User user = findByUserId(userId);
+        user.setRoles(new HashSet<>(roles));
+        User savedUser = userRepository.save(user);
+        userDetailsService.evict(savedUser.getEmail());     // Drops the cached user details holding the old roles.
+
+        // Tokens may carry the user's old roles as claims, so they must not be accepted any longer.
+        revokeAllUserTokens(savedUser);
+
+        return savedUser;
+    }
+
+    @Override
+    public int signOutEverywhere(Long userId) {
+        return revokeAllUserTokens(findByUserId(userId));
+    }
+
+    @Override
+    public int signOutRole(Role role) {
+        // Access tokens of every user with the role are revoked at once by advancing the role's epoch.
+        revocationEpochs.revokeRole(role);
+        return tokenRepository.revokeAllValidTokensByRoleAndTokenType(role, TokenType.REFRESH);
+    }
 }
@@ -0,0 +1,58 @@
+-- Baseline schema of the application, matching the entities as of this version. Later schema changes are added as new
+-- versioned migrations; Hibernate only validates the schema against the entities (ddl-auto: validate).
+
+create sequence users_seq start with 1 increment by 50;
+create sequence token_seq start with 1 increment by 50;
+
+create table users (
+    id bigint not null,
+    username varchar(255),
+    email varchar(255),
+    password varchar(255),
+    primary key (id),
+    -- Logins, token refreshes and user details lookups all find the user by email
+    constraint ux_users_email unique (email)
+);
+
+-- Token versions live in their own table, so that advancing a version (on every login) does not update the users table,
+-- which would invalidate the cached users. A user without a row has version 0.
+create table user_token_versions (
+    user_id bigint not null,
+    version bigint not null,
+    primary key (user_id),
+    constraint fk_user_token_versions_user foreign key (user_id) references users
+);
+
+create table user_roles (
+    user_id bigint not null,
+    roles enum ('ADMIN', 'MODERATOR', 'USER'),
+    constraint fk_user_roles_user foreign key (user_id) references users
+);
+
+create index idx_user_roles_user_id on user_roles (user_id);
+
+create table token (
+    id bigint not null,
+    token_hash varbinary(32),
+    token_type enum ('BEARER', 'REFRESH'),
+    issued_at timestamp(6) with time zone,
+    expires_at timestamp(6) with time zone,
+    expired boolean not null,
+    revoked boolean not null,
+    user_id bigint,
+    primary key (id),
+    constraint fk_token_user foreign key (user_id) references users
+);
+
+-- Lookup of a token by the digest of its string (refresh, logout)
+create unique index ux_token_token_hash on token (token_hash);
+-- Range scans of the purge job
+create index idx_token_expires_at on token (expires_at);
+-- Bulk revocation of a user's tokens
+create index idx_token_user_revoked_expired on token (user_id, revoked, expired);
+
+create table role_epochs (
+    role enum ('ADMIN', 'MODERATOR', 'USER') not null,
+    epoch bigint not null,
+    primary key (role)
+);
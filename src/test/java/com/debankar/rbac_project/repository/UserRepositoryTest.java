@@ -0,0 +1,74 @@
+package com.debankar.rbac_project.repository;
+
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains integration tests of the lookups of UserRepository by email, in the default profile, i.e. with
+ * the second-level cache disabled.
+ */
+@SpringBootTest
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Test case to verify that a user is found by their exact email, both outside of and within a transaction.
+     */
+    @Test
+    public void findByEmail_ExactEmail() {
+        User user = register("lookupUser", "lookup@example.com");
+
+        Optional<User> found = userRepository.findByEmail("lookup@example.com");
+        assertTrue(found.isPresent());
+        assertEquals(user.getId(), found.get().getId());
+        assertEquals("lookupUser", found.get().getUsername());
+
+        assertEquals(user.getId(), transactionTemplate.execute(
+                status -> userRepository.findByEmail("lookup@example.com").orElseThrow().getId()));
+    }
+
+    /**
+     * Test case to verify that the email is matched case-sensitively, as by the derived query findByEmail replaced.
+     */
+    @Test
+    public void findByEmail_CaseSensitive() {
+        register("caseUser", "case@example.com");
+
+        assertTrue(userRepository.findByEmail("Case@Example.com").isEmpty());
+        assertTrue(userRepository.findByEmail("CASE@EXAMPLE.COM").isEmpty());
+    }
+
+    /**
+     * Test case to verify that no user is found for an unknown email, or for a null email.
+     */
+    @Test
+    public void findByEmail_UnknownEmail() {
+        assertTrue(userRepository.findByEmail("unknown@example.com").isEmpty());
+        assertTrue(userRepository.findByEmail(null).isEmpty());
+    }
+
+    private User register(String username, String email) {
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername(username);
+        userDTO.setEmail(email);
+        userDTO.setPassword("password123");
+        return userService.registerUser(userDTO);
+    }
+}
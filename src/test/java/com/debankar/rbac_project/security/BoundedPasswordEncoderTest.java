@@ -0,0 +1,124 @@
+package com.debankar.rbac_project.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the BoundedPasswordEncoder class.
+ */
+public class BoundedPasswordEncoderTest {
+
+    @Mock   // Creates a mock instance of the delegate PasswordEncoder for testing.
+    private PasswordEncoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    /** Setting up an encoder with a single hashing thread and room for one queued request. */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);     // This initializes mocks annotated with @Mock
+        meterRegistry = new SimpleMeterRegistry();
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordEncoder.close();
+    }
+
+    /**
+     * Test case to verify that hashing is delegated, and that its duration is recorded.
+     */
+    @Test
+    public void encodeAndMatches_Delegate() {
+        when(delegate.encode("password")).thenReturn("hash");
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        assertEquals("hash", passwordEncoder.encode("password"));
+        assertTrue(passwordEncoder.matches("password", "hash"));
+        assertEquals(2, meterRegistry.get("password.hashing.duration").timer().count());
+    }
+
+    /**
+     * Test case to verify that once the hashing thread is busy and the queue is full,
+     * further requests are rejected immediately with a retry hint.
+     */
+    @Test
+    public void matches_RejectsWhenSaturated() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "hash"));
+        hashing.await();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("b", "hash"));
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        PasswordHashingRejectedException e = assertThrows(PasswordHashingRejectedException.class,
+                () -> passwordEncoder.matches("c", "hash"));
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get());
+        assertTrue(queued.get());
+        assertTrue(passwordEncoder.matches("d", "hash"));    // Permits are released once requests complete.
+    }
+
+    /**
+     * Test case to verify that a request whose caller gives up waiting is skipped, and that its permit is released.
+     */
+    @Test
+    public void matches_TimesOutAndReleasesPermit() throws Exception {
+        passwordEncoder.close();
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(100), Duration.ofSeconds(1), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches("slow", "hash")).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+        when(delegate.matches("fast", "hash")).thenReturn(true);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> passwordEncoder.matches("slow", "hash"));
+        assertThrows(PasswordHashingRejectedException.class, () -> passwordEncoder.matches("fast", "hash"));
+        release.countDown();
+
+        assertTrue(passwordEncoder.matches("fast", "hash"));
+        verify(delegate, times(1)).matches("fast", "hash");  // The abandoned queued request was never run.
+    }
+
+    /**
+     * Test case to verify that bulk encoding returns the hashes in order, waiting for capacity instead of failing.
+     */
+    @Test
+    public void encodeAll_ReturnsHashesInOrder() {
+        when(delegate.encode(any())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+
+        List<String> hashes = passwordEncoder.encodeAll(List.of("a", "b", "c", "d", "e"));
+
+        assertEquals(List.of("hash-a", "hash-b", "hash-c", "hash-d", "hash-e"), hashes);
+        assertEquals(0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+}
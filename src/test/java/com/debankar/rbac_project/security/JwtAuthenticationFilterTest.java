@@ -0,0 +1,160 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.service.CustomUserDetailsService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the JwtAuthenticationFilter class, covering each outcome it records.
+ */
+public class JwtAuthenticationFilterTest {
+
+    private static final String SECRET_KEY = "0123456789abcdef0123456789abcdef";
+
+    @Mock   // Creates a mock instance of CustomUserDetailsService for testing.
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock   // Creates a mock instance of TokenRevocationIndex for testing.
+    private TokenRevocationIndex tokenRevocationIndex;
+
+    @Mock   // Creates a mock instance of RevocationEpochs for testing.
+    private RevocationEpochs revocationEpochs;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private JwtAuthenticationFilter filter;
+
+    private String token;
+
+    /** Setting up the filter with a real token provider and metrics, and a valid token for a test user. */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);     // This initializes mocks annotated with @Mock
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenProvider = new JwtTokenProvider(new SigningKeyring(SECRET_KEY, "", Duration.ofMinutes(5)), false, Duration.ofMinutes(5), Duration.ofDays(7));
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, tokenRevocationIndex,
+                revocationEpochs, new AuthMetrics(meterRegistry));
+
+        User user = new User("testUser", "test@example.com", "encodedPassword", Set.of(Role.USER));
+        token = jwtTokenProvider.generateToken(user);
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(
+                org.springframework.security.core.userdetails.User.withUsername("test@example.com")
+                        .password("encodedPassword").roles("USER").build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Test case to verify that a valid token authenticates the request, and that every stage is timed.
+     */
+    @Test
+    public void doFilter_ValidToken() throws Exception {
+        filter(token);
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, outcomeCount("valid"));
+        for (String stage : new String[]{"header-extraction", "revocation-check", "verification", "user-details", "security-context"}) {
+            assertEquals(1, meterRegistry.get("auth.filter.stage").tag("stage", stage).timer().count(), stage);
+        }
+    }
+
+    /**
+     * Test case to verify the outcomes of requests that are not authenticated:
+     * no token, a revoked token, a token revoked with all of its user's tokens, an expired token, a malformed token and a token of a deleted user.
+     */
+    @Test
+    public void doFilter_RejectedTokens() throws Exception {
+        filter(null);
+        assertEquals(1, outcomeCount("missing"));
+
+        when(tokenRevocationIndex.isRevoked(TokenDigest.of(token))).thenReturn(true);
+        filter(token);
+        assertEquals(1, outcomeCount("revoked"));
+
+        when(tokenRevocationIndex.isRevoked(TokenDigest.of(token))).thenReturn(false);
+        when(revocationEpochs.isRevoked(any(VerifiedToken.class), eq(RoleAuthorities.roleBit(Role.USER)))).thenReturn(true);
+        filter(token);
+        assertEquals(2, outcomeCount("revoked"));
+
+        String expiredToken = Jwts.builder()
+                .subject("test@example.com")
+                .expiration(Date.from(Instant.now().minusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .compact();
+        filter(expiredToken);
+        assertEquals(1, outcomeCount("expired"));
+
+        filter("not-a-jwt");
+        assertEquals(1, outcomeCount("malformed"));
+
+        String otherUsersToken = jwtTokenProvider.generateToken("deleted@example.com");
+        when(userDetailsService.loadUserByUsername("deleted@example.com")).thenThrow(new UsernameNotFoundException("gone"));
+        filter(otherUsersToken);
+        assertEquals(1, outcomeCount("unknown-user"));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService).loadUserByUsername("test@example.com");
+    }
+
+    /**
+     * Test case to verify that a stage that rejects the token by throwing is timed, and that the later stages are not.
+     */
+    @Test
+    public void doFilter_ThrowingStagesTimed() throws Exception {
+        filter("not-a-jwt");
+        assertEquals(1, stageCount("verification"));
+        assertEquals(0, stageCount("user-details"));
+
+        String otherUsersToken = jwtTokenProvider.generateToken("deleted@example.com");
+        when(userDetailsService.loadUserByUsername("deleted@example.com")).thenThrow(new UsernameNotFoundException("gone"));
+        filter(otherUsersToken);
+        assertEquals(2, stageCount("verification"));
+        assertEquals(1, stageCount("user-details"));
+        assertEquals(0, stageCount("security-context"));
+        assertEquals(2, stageCount("revocation-check"));
+    }
+
+    // Runs the filter for a request bearing the given token (or no Authorization header if null).
+    private void filter(String bearerToken) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/user");
+        if (bearerToken != null) {
+            request.addHeader("Authorization", "Bearer " + bearerToken);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get("auth.filter.stage").tag("stage", stage).timer().count();
+    }
+
+    private long outcomeCount(String outcome) {
+        return meterRegistry.get("auth.filter.requests").tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,123 @@
+package com.debankar.rbac_project.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the LoginThrottle and RateLimiter classes.
+ */
+public class LoginThrottleTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();  // A manually advanced clock for the limiters.
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginThrottle loginThrottle;
+
+    /** Setting up a throttle allowing 10 attempts per minute per IP and 3 per minute per email. */
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginThrottle = new LoginThrottle(
+                new RateLimiter(10, Duration.ofMinutes(1), 100, nanoTime::get),
+                new RateLimiter(3, Duration.ofMinutes(1), 100, nanoTime::get),
+                meterRegistry);
+    }
+
+    /**
+     * Test case to verify that a burst of attempts for one email is allowed up to the burst size,
+     * that the next attempt is rejected with the time until a token is refilled,
+     * and that attempts are allowed again once that time has passed.
+     */
+    @Test
+    public void acquire_ThrottlesEmailAfterBurst() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.acquire("jill@mail.com", "10.0.0.1");
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.acquire("JILL@mail.com", "10.0.0.1"));   // Case variants share the bucket.
+        assertEquals(Duration.ofSeconds(20), e.getRetryAfter());
+        assertEquals(1, meterRegistry.get("login.throttled").tag("key", "email").counter().count());
+
+        loginThrottle.acquire("jack@mail.com", "10.0.0.1");     // Other emails are unaffected.
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        loginThrottle.acquire("jill@mail.com", "10.0.0.1");
+        assertThrows(LoginThrottledException.class, () -> loginThrottle.acquire("jill@mail.com", "10.0.0.1"));
+    }
+
+    /**
+     * Test case to verify that failed attempts for an email from one IP do not block a correct login for that email from
+     * another IP, and that successful logins do not use up the email's attempts.
+     */
+    @Test
+    public void acquire_OwnerNotBlockedByFailuresFromAnotherIp() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.acquire("jill@mail.com", "10.0.0.9");     // Failed attempts, which are not given back.
+        }
+        assertThrows(LoginThrottledException.class, () -> loginThrottle.acquire("jill@mail.com", "10.0.0.9"));
+
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.acquire("jill@mail.com", "10.0.0.1");
+            loginThrottle.succeeded("jill@mail.com", "10.0.0.1");
+        }
+        assertEquals(1, meterRegistry.get("login.throttled").tag("key", "email").counter().count());
+    }
+
+    /**
+     * Test case to verify that a client spreading attempts over many emails is throttled by its IP.
+     */
+    @Test
+    public void acquire_ThrottlesIpAcrossEmails() {
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.acquire("user" + i + "@mail.com", "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> loginThrottle.acquire("other@mail.com", "10.0.0.1"));
+        assertEquals(1, meterRegistry.get("login.throttled").tag("key", "ip").counter().count());
+        loginThrottle.acquire("other@mail.com", "10.0.0.2");
+    }
+
+    /**
+     * Test case to verify that the number of tracked keys never exceeds the configured maximum,
+     * and that keys idle for a full period are dropped.
+     */
+    @Test
+    public void rateLimiter_BoundsAndEvictsKeys() {
+        RateLimiter rateLimiter = new RateLimiter(5, Duration.ofMinutes(1), 100, nanoTime::get);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("key" + i));
+        }
+        assertTrue(rateLimiter.size() <= 100);
+
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1) + 1);
+        assertEquals(0, rateLimiter.size());
+    }
+
+    /**
+     * Test case to verify that a burst or period that would divide by zero or disable throttling is rejected,
+     * with the name of the property at fault.
+     */
+    @Test
+    public void constructor_RejectsInvalidLimits() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new LoginThrottle(
+                meterRegistry, 0, Duration.ofMinutes(1), 5, Duration.ofMinutes(1), 100));
+        assertTrue(e.getMessage().startsWith("my.login-throttle.ip.burst"));
+
+        e = assertThrows(IllegalArgumentException.class, () -> new LoginThrottle(
+                meterRegistry, 50, Duration.ofMinutes(1), 5, Duration.ZERO, 100));
+        assertTrue(e.getMessage().startsWith("my.login-throttle.email.period"));
+
+        e = assertThrows(IllegalArgumentException.class, () -> new LoginThrottle(
+                meterRegistry, 50, Duration.ofMinutes(1), 1_000, Duration.ofNanos(999), 100));
+        assertTrue(e.getMessage().startsWith("my.login-throttle.email.burst"));
+    }
+}
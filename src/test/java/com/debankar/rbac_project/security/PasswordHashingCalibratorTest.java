@@ -0,0 +1,35 @@
+package com.debankar.rbac_project.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the PasswordHashingCalibrator class.
+ */
+public class PasswordHashingCalibratorTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Test case to verify that the strength is raised one step per doubling of the hashing time
+     * that still fits the budget.
+     */
+    @Test
+    public void strengthWithin_FitsBudget() {
+        assertEquals(12, PasswordHashingCalibrator.strengthWithin(60 * MILLIS, 10, 14, 250 * MILLIS));
+        assertEquals(11, PasswordHashingCalibrator.strengthWithin(100 * MILLIS, 10, 14, 250 * MILLIS));
+    }
+
+    /**
+     * Test case to verify that the strength never leaves the configured bounds,
+     * even on a host that is too slow or much faster than the budget requires.
+     */
+    @Test
+    public void strengthWithin_StaysWithinBounds() {
+        assertEquals(10, PasswordHashingCalibrator.strengthWithin(500 * MILLIS, 10, 14, 250 * MILLIS));
+        assertEquals(14, PasswordHashingCalibrator.strengthWithin(MILLIS, 10, 14, 250 * MILLIS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.controller.ModeratorController;
+import com.debankar.rbac_project.controller.UserController;
+import com.debankar.rbac_project.enums.Permission;
+import com.debankar.rbac_project.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the PermissionAuthorizationManager class.
+ */
+public class PermissionAuthorizationManagerTest {
+
+    private PermissionAuthorizationManager permissionAuthorizationManager;
+
+    /** Setting up the authorization manager. */
+    @BeforeEach
+    public void setup() {
+        permissionAuthorizationManager = new PermissionAuthorizationManager();
+    }
+
+    /**
+     * Test case to verify that the permissions of a combination of roles are the union of the permissions of each role,
+     * and that anonymous callers and unknown authorities grant no permission.
+     */
+    @Test
+    public void grantedPermissions_UnionOfRoles() {
+        assertEquals(PermissionAuthorizationManager.permissionMask(Permission.CONTENT_READ, Permission.CONTENT_WRITE),
+                PermissionAuthorizationManager.grantedPermissions(user(Role.USER)));
+        assertEquals(PermissionAuthorizationManager.permissionMask(Permission.values()),
+                PermissionAuthorizationManager.grantedPermissions(user(Role.USER, Role.ADMIN)));
+        assertEquals(PermissionAuthorizationManager.grantedPermissions(user(Role.MODERATOR)),
+                PermissionAuthorizationManager.grantedPermissions(user(Role.USER, Role.MODERATOR)));
+
+        Authentication anonymous = new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+        assertEquals(0L, PermissionAuthorizationManager.grantedPermissions(anonymous));
+        assertEquals(0L, PermissionAuthorizationManager.grantedPermissions(
+                new UsernamePasswordAuthenticationToken("test@example.com", null, AuthorityUtils.createAuthorityList("ROLE_OTHER"))));
+    }
+
+    /**
+     * Test case to verify that a method's annotation is checked against the caller's permissions.
+     */
+    @Test
+    public void check_MethodAnnotation() throws NoSuchMethodException {
+        Object controller = new UserController();
+
+        assertTrue(isAllowed(user(Role.USER), controller, "get"));
+        assertTrue(isAllowed(user(Role.USER), controller, "delete"));
+        assertFalse(isAllowed(user(), controller, "get"));
+        assertFalse(isAllowed(null, controller, "get"));
+    }
+
+    /**
+     * Test case to verify that a class's annotation applies to its methods without their own annotation,
+     * and that a method without any annotation is allowed to everyone.
+     */
+    @Test
+    public void check_ClassAnnotationAndUnannotatedMethods() throws NoSuchMethodException {
+        Object controller = new ModeratorController();
+
+        assertTrue(isAllowed(user(Role.MODERATOR), controller, "put"));
+        assertTrue(isAllowed(user(Role.ADMIN), controller, "put"));
+        assertFalse(isAllowed(user(Role.USER), controller, "put"));
+
+        assertTrue(isAllowed(null, new Object(), "toString"));
+    }
+
+    /**
+     * Test case to verify that an inherited method takes the annotation of the class it is called on, whichever class
+     * it was called on first.
+     */
+    @Test
+    public void check_InheritedMethodPerTargetClass() throws NoSuchMethodException {
+        assertFalse(isAllowed(user(Role.USER), new AdminResource(), "get"));
+        assertTrue(isAllowed(user(Role.USER), new ReadableResource(), "get"));
+        assertTrue(isAllowed(user(Role.ADMIN), new AdminResource(), "get"));
+    }
+
+    /**
+     * Test case to verify that the shared role authorities and equal authorities built elsewhere grant the same
+     * permissions.
+     */
+    @Test
+    public void grantedPermissions_SharedAndForeignAuthorities() {
+        Authentication shared = new UsernamePasswordAuthenticationToken(
+                "test@example.com", null, RoleAuthorities.of(List.of(Role.USER, Role.MODERATOR)));
+
+        assertEquals(PermissionAuthorizationManager.grantedPermissions(user(Role.USER, Role.MODERATOR)),
+                PermissionAuthorizationManager.grantedPermissions(shared));
+    }
+
+    private boolean isAllowed(Authentication authentication, Object target, String methodName) throws NoSuchMethodException {
+        SimpleMethodInvocation invocation = new SimpleMethodInvocation(target, target.getClass().getMethod(methodName));
+        return permissionAuthorizationManager.authorize(() -> authentication, invocation).isGranted();
+    }
+
+    public static class Resource {
+        public void get() {
+        }
+    }
+
+    @RequiresPermission(Permission.SYSTEM_ADMIN)
+    public static class AdminResource extends Resource {
+    }
+
+    @RequiresPermission(Permission.CONTENT_READ)
+    public static class ReadableResource extends Resource {
+    }
+
+    private static Authentication user(Role... roles) {
+        return new UsernamePasswordAuthenticationToken("test@example.com", null, AuthorityUtils.createAuthorityList(
+                Arrays.stream(roles).map(role -> "ROLE_" + role.name()).toArray(String[]::new)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.RoleBasedAccessControlApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains integration tests of revocations across a restart of the application, on an in-memory database
+ * that outlives the application context. The first request after the restart is sent as soon as the web server is
+ * started, i.e. before the application is reported ready.
+ */
+public class RevocationAfterRestartTest {
+
+    private static final String TOKEN_PREFIX = "JWT Token: ";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Test case to verify that an access token revoked by logout before a restart is rejected on the first request
+     * after the restart.
+     */
+    @Test
+    public void logout_RevokedTokenRejectedOnFirstRequestAfterRestart() {
+        String databaseUrl = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String token;
+        try (ConfigurableApplicationContext context = start(databaseUrl, null, null)) {
+            String baseUrl = baseUrl(context);
+            register(baseUrl);
+            token = login(baseUrl, "restart@example.com", "password123");
+            assertEquals(200, send(HttpRequest.newBuilder(URI.create(baseUrl + "/public/logout"))
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.noBody())).statusCode());
+        }
+
+        AtomicInteger firstStatus = new AtomicInteger();
+        try (ConfigurableApplicationContext ignored = start(databaseUrl, token, firstStatus)) {
+            assertEquals(403, firstStatus.get());
+        }
+    }
+
+    /**
+     * Test case to verify that an access token revoked by a later login of its user (i.e. by the user's token version)
+     * before a restart is rejected on the first request after the restart.
+     */
+    @Test
+    public void login_EarlierTokenRejectedOnFirstRequestAfterRestart() {
+        String databaseUrl = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String earlierToken;
+        try (ConfigurableApplicationContext context = start(databaseUrl, null, null)) {
+            String baseUrl = baseUrl(context);
+            register(baseUrl);
+            earlierToken = login(baseUrl, "restart@example.com", "password123");
+            login(baseUrl, "restart@example.com", "password123");
+        }
+
+        AtomicInteger firstStatus = new AtomicInteger();
+        try (ConfigurableApplicationContext ignored = start(databaseUrl, earlierToken, firstStatus)) {
+            assertEquals(403, firstStatus.get());
+        }
+    }
+
+    /*
+     * Starts the application on the given database, on a random port. If a token is given, a request to /user with it is
+     * sent as soon as the web server is started, and its status stored in the given holder.
+     */
+    private ConfigurableApplicationContext start(String databaseUrl, String token, AtomicInteger firstStatus) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(RoleBasedAccessControlApplication.class);
+        if (token != null) {
+            builder.listeners((ApplicationListener<ApplicationEvent>) event -> {
+                if (event instanceof WebServerInitializedEvent started) {
+                    firstStatus.set(send(HttpRequest.newBuilder(URI.create(
+                                    "http://localhost:" + started.getWebServer().getPort() + "/api/v1/user"))
+                            .header("Authorization", "Bearer " + token)
+                            .GET()).statusCode());
+                }
+            });
+        }
+        // Given as arguments, which take precedence over application.yml, unlike default properties. A low fixed hashing
+        // strength skips the calibration of each start.
+        return builder.run("--server.port=0", "--spring.datasource.url=" + databaseUrl,
+                "--spring.jpa.hibernate.ddl-auto=update", "--my.password-hashing.strength=4");
+    }
+
+    private void register(String baseUrl) {
+        assertEquals(201, send(HttpRequest.newBuilder(URI.create(baseUrl + "/public/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"restartUser\",\"email\":\"restart@example.com\",\"password\":\"password123\"}")))
+                .statusCode());
+    }
+
+    private String login(String baseUrl, String email, String password) {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(
+                baseUrl + "/public/login?email=" + email + "&password=" + password)).POST(HttpRequest.BodyPublishers.noBody()));
+        assertEquals(200, response.statusCode());
+        return response.body().lines()
+                .filter(line -> line.startsWith(TOKEN_PREFIX))
+                .map(line -> line.substring(TOKEN_PREFIX.length()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) {
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.repository.UserTokenVersionRepository;
+import com.debankar.rbac_project.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains integration tests of RevocationEpochs against the database.
+ */
+@SpringBootTest
+public class RevocationEpochsIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RevocationEpochs revocationEpochs;
+
+    @Autowired
+    private UserTokenVersionRepository userTokenVersionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Test case to verify that concurrent revocations of a user without a version yet each advance the user's version,
+     * so none of them is lost.
+     */
+    @Test
+    public void revokeUser_ConcurrentRevocationsEachAdvanceTheVersion() throws Exception {
+        User user = register("concurrent@example.com");
+        int revocations = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(revocations);
+        List<Future<Long>> versions = new ArrayList<>();
+        for (int i = 0; i < revocations; i++) {
+            versions.add(executor.submit(() -> {
+                start.await();
+                return revocationEpochs.revokeUser(user);
+            }));
+        }
+        start.countDown();
+
+        Set<Long> returnedVersions = new TreeSet<>();
+        for (Future<Long> version : versions) {
+            returnedVersions.add(version.get());
+        }
+        executor.shutdown();
+
+        assertEquals(LongStream.rangeClosed(1, revocations).boxed().collect(Collectors.toSet()), returnedVersions);
+        assertEquals(revocations, userTokenVersionRepository.findById(user.getId()).orElseThrow().getVersion());
+        assertEquals((long) revocations,
+                revocationEpochs.claimsFor(user.getEmail(), user.getRoles()).get(RevocationEpochs.VERSION_CLAIM));
+    }
+
+    /**
+     * Test case to verify that a revocation made within a transaction sticks when that transaction rolls back.
+     */
+    @Test
+    public void revokeUser_SticksWhenCallerRollsBack() {
+        User user = register("rollback@example.com");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            revocationEpochs.revokeUser(user);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, userTokenVersionRepository.findById(user.getId()).orElseThrow().getVersion());
+    }
+
+    private User register(String email) {
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername(email.substring(0, email.indexOf('@')));
+        userDTO.setEmail(email);
+        userDTO.setPassword("password123");
+        return userService.registerUser(userDTO);
+    }
+}
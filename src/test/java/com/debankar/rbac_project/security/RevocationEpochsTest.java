@@ -0,0 +1,121 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.entity.RoleEpoch;
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.repository.RoleEpochRepository;
+import com.debankar.rbac_project.repository.UserTokenVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the RevocationEpochs class, with tokens issued by a real JwtTokenProvider.
+ */
+public class RevocationEpochsTest {
+
+    @Mock   // Creates a mock instance of UserTokenVersionRepository for testing.
+    private UserTokenVersionRepository userTokenVersionRepository;
+
+    @Mock   // Creates a mock instance of RoleEpochRepository for testing.
+    private RoleEpochRepository roleEpochRepository;
+
+    private RevocationEpochs revocationEpochs;
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private User user;
+
+    /** Setting up the revocation epochs, a token provider and a test user with two roles. */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);     // This initializes mocks annotated with @Mock
+        revocationEpochs = new RevocationEpochs(userTokenVersionRepository, roleEpochRepository);
+        jwtTokenProvider = new JwtTokenProvider(new SigningKeyring("0123456789abcdef0123456789abcdef", "", Duration.ofMinutes(5)),
+                false, Duration.ofMinutes(5), Duration.ofDays(7));
+
+        user = new User("testUser", "test@example.com", "encodedPassword", EnumSet.of(Role.USER, Role.MODERATOR));
+        user.setId(1L);
+    }
+
+    /**
+     * Test case to verify that revoking a user rejects the user's earlier tokens, advancing the user's version,
+     * while tokens issued afterwards and the tokens of other users are still accepted.
+     */
+    @Test
+    public void revokeUser_RejectsEarlierTokensOfTheUser() {
+        when(userTokenVersionRepository.incrementTokenVersion(1L)).thenReturn(1L);
+        VerifiedToken earlierToken = issue(user);
+        VerifiedToken otherUsersToken = jwtTokenProvider.verify(jwtTokenProvider.generateToken("other@example.com"));
+
+        assertEquals(1, revocationEpochs.revokeUser(user));
+        VerifiedToken laterToken = issue(user);
+
+        assertTrue(revocationEpochs.isRevoked(earlierToken, roleMask(user.getRoles())));
+        assertFalse(revocationEpochs.isRevoked(laterToken, roleMask(user.getRoles())));
+        assertFalse(revocationEpochs.isRevoked(otherUsersToken, 0));
+        verify(userTokenVersionRepository).incrementTokenVersion(1L);
+    }
+
+    /**
+     * Test case to verify that revoking a role rejects the earlier tokens of every user with the role,
+     * while tokens issued afterwards and tokens of users without the role are still accepted.
+     */
+    @Test
+    public void revokeRole_RejectsEarlierTokensOfUsersWithTheRole() {
+        User otherUser = new User("otherUser", "other@example.com", "encodedPassword", EnumSet.of(Role.USER));
+        VerifiedToken earlierToken = issue(user);
+        VerifiedToken otherUsersToken = issue(otherUser);
+
+        revocationEpochs.revokeRole(Role.MODERATOR);
+        VerifiedToken laterToken = issue(user);
+
+        assertTrue(revocationEpochs.isRevoked(earlierToken, roleMask(user.getRoles())));
+        assertFalse(revocationEpochs.isRevoked(laterToken, roleMask(user.getRoles())));
+        assertFalse(revocationEpochs.isRevoked(otherUsersToken, roleMask(otherUser.getRoles())));
+        verify(roleEpochRepository).save(any(RoleEpoch.class));
+    }
+
+    /**
+     * Test case to verify that the versions and epochs are reloaded from the database,
+     * so that tokens revoked before a restart stay revoked.
+     */
+    @Test
+    public void rebuild_RestoresVersionsAndEpochs() {
+        UserTokenVersionRepository.EmailTokenVersion userVersion = mock(UserTokenVersionRepository.EmailTokenVersion.class);
+        when(userVersion.getEmail()).thenReturn("test@example.com");
+        when(userVersion.getTokenVersion()).thenReturn(3L);
+        when(userTokenVersionRepository.findAdvancedTokenVersions()).thenReturn(List.of(userVersion));
+        when(roleEpochRepository.findAll()).thenReturn(List.of(new RoleEpoch(Role.USER, 2L)));
+        VerifiedToken earlierToken = issue(user);
+
+        revocationEpochs.rebuild();
+        VerifiedToken laterToken = issue(user);
+
+        assertTrue(revocationEpochs.isRevoked(earlierToken, roleMask(user.getRoles())));
+        assertFalse(revocationEpochs.isRevoked(laterToken, roleMask(user.getRoles())));
+        when(userTokenVersionRepository.incrementTokenVersion(1L)).thenReturn(4L);
+        assertEquals(4, revocationEpochs.revokeUser(user));
+    }
+
+    // Issues an access token to the given user, with the claims of the current versions and epochs, and verifies it.
+    private VerifiedToken issue(User tokenUser) {
+        String token = jwtTokenProvider.issueToken(tokenUser,
+                revocationEpochs.claimsFor(tokenUser.getEmail(), tokenUser.getRoles())).getToken();
+        return jwtTokenProvider.verify(token);
+    }
+
+    private static int roleMask(Set<Role> roles) {
+        return RoleAuthorities.roleMask(RoleAuthorities.of(roles));
+    }
+}
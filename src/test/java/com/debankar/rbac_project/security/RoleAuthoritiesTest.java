@@ -0,0 +1,44 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the RoleAuthorities class.
+ */
+public class RoleAuthoritiesTest {
+
+    /**
+     * Test case to verify that every combination of roles maps to one shared, immutable authority set,
+     * whether the roles are given as roles or by name.
+     */
+    @Test
+    public void of_ReturnsSharedSetPerRoleCombination() {
+        Set<GrantedAuthority> authorities = RoleAuthorities.of(EnumSet.of(Role.USER, Role.ADMIN));
+
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), AuthorityUtils.authorityListToSet(authorities));
+        assertSame(authorities, RoleAuthorities.of(List.of(Role.ADMIN, Role.USER, Role.ADMIN)));
+        assertSame(authorities, RoleAuthorities.ofNames(List.of("ADMIN", "USER")));
+        assertTrue(RoleAuthorities.of(Set.of()).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> authorities.clear());
+    }
+
+    /**
+     * Test case to verify that unknown role names and authorities are ignored.
+     */
+    @Test
+    public void ofNamesAndRoleMask_IgnoreUnknownRoles() {
+        assertSame(RoleAuthorities.of(Set.of(Role.MODERATOR)), RoleAuthorities.ofNames(List.of("MODERATOR", "OTHER")));
+
+        int roleMask = RoleAuthorities.roleMask(AuthorityUtils.createAuthorityList("ROLE_MODERATOR", "ROLE_OTHER", "USER"));
+        assertEquals(RoleAuthorities.roleBit(Role.MODERATOR), roleMask);
+    }
+}
@@ -0,0 +1,110 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the RouteAuthorizationManager class.
+ */
+public class RouteAuthorizationManagerTest {
+
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken(
+            "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+    private RouteAuthorizationManager routeAuthorizationManager;
+
+    /** Setting up a route table like the application's, plus rules exercising precedence between patterns. */
+    @BeforeEach
+    public void setup() {
+        routeAuthorizationManager = RouteAuthorizationManager.builder()
+                .permitAll("/api/v1/public/**")
+                .hasAnyRole("/api/v1/admin/**", Role.ADMIN)
+                .hasAnyRole("/api/v1/moderator/**", Role.MODERATOR, Role.ADMIN)
+                .hasAnyRole(HttpMethod.GET, "/api/v1/moderator/reports/*", Role.USER)
+                .hasAnyRole("/api/v1/moderator/reports/{reportId}/comments", Role.USER)
+                .hasAnyRole("/api/v1/moderator/reports/archive", Role.ADMIN)
+                .build();
+    }
+
+    /**
+     * Test case to verify that public paths are open to everyone, and that role-restricted paths
+     * are only open to callers with one of the roles.
+     */
+    @Test
+    public void check_RoleRestrictedPaths() {
+        assertTrue(isAllowed(ANONYMOUS, "POST", "/api/v1/public/login"));
+        assertTrue(isAllowed(ANONYMOUS, "GET", "/api/v1/public"));
+
+        assertTrue(isAllowed(user(Role.ADMIN), "GET", "/api/v1/admin/users"));
+        assertTrue(isAllowed(user(Role.ADMIN), "GET", "/api/v1/admin"));
+        assertFalse(isAllowed(user(Role.USER, Role.MODERATOR), "GET", "/api/v1/admin/users"));
+        assertFalse(isAllowed(ANONYMOUS, "GET", "/api/v1/admin/users"));
+
+        assertTrue(isAllowed(user(Role.MODERATOR), "DELETE", "/api/v1/moderator"));
+        assertFalse(isAllowed(user(Role.USER), "DELETE", "/api/v1/moderator"));
+    }
+
+    /**
+     * Test case to verify that the most specific rule wins, whatever the order of the rules:
+     * a method-specific rule beats an any-method rule, a literal segment beats "*",
+     * and a deeper rule beats a shallower "**", backtracking from a literal segment that leads nowhere.
+     */
+    @Test
+    public void check_MostSpecificRuleWins() {
+        assertTrue(isAllowed(user(Role.USER), "GET", "/api/v1/moderator/reports/7"));
+        assertFalse(isAllowed(user(Role.USER), "DELETE", "/api/v1/moderator/reports/7"));
+        assertTrue(isAllowed(user(Role.MODERATOR), "DELETE", "/api/v1/moderator/reports/7"));
+
+        assertFalse(isAllowed(user(Role.USER), "GET", "/api/v1/moderator/reports/archive"));
+        assertFalse(isAllowed(user(Role.MODERATOR), "GET", "/api/v1/moderator/reports/archive"));
+        assertTrue(isAllowed(user(Role.USER), "POST", "/api/v1/moderator/reports/archive/comments"));
+        assertFalse(isAllowed(user(Role.USER), "POST", "/api/v1/moderator/reports/7/attachments"));
+    }
+
+    /**
+     * Test case to verify that paths matching no rule are open to authenticated users only,
+     * and that encoded or trailing-slash variants of a path are matched like the path itself.
+     */
+    @Test
+    public void check_UnmatchedAndEncodedPaths() {
+        assertTrue(isAllowed(user(), "GET", "/error"));
+        assertFalse(isAllowed(ANONYMOUS, "GET", "/error"));
+        assertFalse(isAllowed(null, "GET", "/error"));
+
+        assertFalse(isAllowed(user(Role.USER), "GET", "/api/v1/%61dmin/users"));
+        assertFalse(isAllowed(user(Role.USER), "GET", "/api/v1/admin/"));
+    }
+
+    /**
+     * Test case to verify that a rule defined twice is rejected when the table is built.
+     */
+    @Test
+    public void builder_RejectsDuplicateRules() {
+        RouteAuthorizationManager.Builder builder = RouteAuthorizationManager.builder().hasAnyRole("/a/*", Role.USER);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.hasAnyRole("/a/{id}", Role.ADMIN));
+        assertThrows(IllegalArgumentException.class, () -> builder.hasAnyRole("/a/**/b", Role.ADMIN));
+    }
+
+    private boolean isAllowed(Authentication authentication, String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        return routeAuthorizationManager.authorize(() -> authentication, new RequestAuthorizationContext(request)).isGranted();
+    }
+
+    private static Authentication user(Role... roles) {
+        return new UsernamePasswordAuthenticationToken("test@example.com", null, AuthorityUtils.createAuthorityList(
+                Arrays.stream(roles).map(role -> "ROLE_" + role.name()).toArray(String[]::new)));
+    }
+}
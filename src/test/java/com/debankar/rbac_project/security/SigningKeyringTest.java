@@ -0,0 +1,153 @@
+package com.debankar.rbac_project.security;
+
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SigningKeyring class, through the JwtTokenProvider that signs and verifies
+ * tokens with it.
+ */
+public class SigningKeyringTest {
+
+    private static final String SECRET_KEY = "0123456789abcdef0123456789abcdef";
+
+    @TempDir
+    private Path tempDir;
+
+    private Path keysFile;
+
+    private User user;
+
+    /** Setting up the path of the key file and a test user. */
+    @BeforeEach
+    public void setup() {
+        keysFile = tempDir.resolve("jwks.json");
+        user = new User("testUser", "test@example.com", "encodedPassword", Set.of(Role.USER));
+    }
+
+    /**
+     * Test case to verify that without a key file, tokens are signed with the secret key under its own key id,
+     * that tokens without a key id are still accepted, and that no key is published.
+     */
+    @Test
+    public void secretKey_SignsAndVerifies() {
+        SigningKeyring keyring = new SigningKeyring(SECRET_KEY, "", Duration.ofMinutes(5));
+        JwtTokenProvider jwtTokenProvider = tokenProvider(keyring);
+
+        String token = jwtTokenProvider.generateToken(user);
+        String tokenWithoutKeyId = Jwts.builder()
+                .subject("test@example.com")
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .compact();
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"kid\":\"" + SigningKeyring.SECRET_KEY_ID + "\""), header);
+        assertEquals("test@example.com", jwtTokenProvider.verify(token).getSubject());
+        assertEquals("test@example.com", jwtTokenProvider.verify(tokenWithoutKeyId).getSubject());
+        assertEquals("{\"keys\":[]}", keyring.getJwks());
+    }
+
+    /**
+     * Test case to verify that tokens are signed with the first key of the file, whatever its algorithm,
+     * that every key of the file verifies, and that only public keys are published.
+     */
+    @Test
+    public void keyFile_SignsWithFirstKeyAndPublishesPublicKeys() throws IOException {
+        Jwk<?> ecKey = Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("ec-1").algorithm("ES256").build();
+        Jwk<?> edKey = Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build()).id("ed-1").algorithm("EdDSA").build();
+        Jwk<?> hmacKey = Jwks.builder().key(Jwts.SIG.HS256.key().build()).id("hs-1").algorithm("HS256").build();
+
+        writeKeys(ecKey, edKey, hmacKey);
+        SigningKeyring keyring = new SigningKeyring(SECRET_KEY, keysFile.toString(), Duration.ofMinutes(5));
+        String ecToken = tokenProvider(keyring).generateToken(user);
+
+        writeKeys(edKey, ecKey, hmacKey);
+        keyring.reload();
+        String edToken = tokenProvider(keyring).generateToken(user);
+
+        assertEquals("ed-1", keyring.getSigningKey().getKeyId());
+        assertEquals("test@example.com", tokenProvider(keyring).verify(ecToken).getSubject());
+        assertEquals("test@example.com", tokenProvider(keyring).verify(edToken).getSubject());
+        assertTrue(keyring.getJwks().contains("\"kid\":\"ec-1\"") && keyring.getJwks().contains("\"kid\":\"ed-1\""));
+        assertFalse(keyring.getJwks().contains("hs-1"));
+        assertFalse(keyring.getJwks().contains("\"d\""));     // Private key material is never published.
+    }
+
+    /**
+     * Test case to verify that a key removed from the file is still accepted for the retired key validity,
+     * and rejected once that validity is over.
+     */
+    @Test
+    public void keyFile_AcceptsRetiredKeysUntilTheirTokensExpire() throws IOException {
+        Jwk<?> oldKey = Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("old").algorithm("ES256").build();
+        Jwk<?> newKey = Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("new").algorithm("ES256").build();
+        writeKeys(oldKey);
+
+        SigningKeyring keyring = new SigningKeyring(SECRET_KEY, keysFile.toString(), Duration.ofMinutes(5));
+        SigningKeyring expiringKeyring = new SigningKeyring(SECRET_KEY, keysFile.toString(), Duration.ZERO);
+        String oldToken = tokenProvider(keyring).generateToken(user);
+
+        writeKeys(newKey);
+        keyring.reload();
+        expiringKeyring.reload();
+
+        assertEquals("new", keyring.getSigningKey().getKeyId());
+        assertEquals("test@example.com", tokenProvider(keyring).verify(oldToken).getSubject());
+        assertThrows(JwtException.class, () -> tokenProvider(expiringKeyring).verify(oldToken));
+    }
+
+    /**
+     * Test case to verify that an invalid key file is rejected on reload, leaving the current keys in use,
+     * and that a token signed by an unknown key is rejected.
+     */
+    @Test
+    public void keyFile_RejectsInvalidKeysAndUnknownKeyIds() throws IOException {
+        Jwk<?> key = Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("ec-1").algorithm("ES256").build();
+        writeKeys(key);
+        SigningKeyring keyring = new SigningKeyring(SECRET_KEY, keysFile.toString(), Duration.ofMinutes(5));
+
+        Files.writeString(keysFile, "{\"keys\":[");
+        assertThrows(IOException.class, keyring::reload);
+        Jwk<?> keyWithoutId = Jwks.builder().key(Jwts.SIG.HS256.key().build()).algorithm("HS256").build();
+        writeKeys(keyWithoutId);
+        assertThrows(IllegalArgumentException.class, keyring::reload);
+        keyring.reloadIfChanged();      // Logged and ignored.
+
+        assertEquals("ec-1", keyring.getSigningKey().getKeyId());
+        String foreignToken = Jwts.builder()
+                .header().keyId("other").and()
+                .subject("test@example.com")
+                .signWith(Jwts.SIG.ES256.keyPair().build().getPrivate())
+                .compact();
+        assertThrows(JwtException.class, () -> tokenProvider(keyring).verify(foreignToken));
+    }
+
+    private JwtTokenProvider tokenProvider(SigningKeyring keyring) {
+        return new JwtTokenProvider(keyring, false, Duration.ofMinutes(5), Duration.ofDays(7));
+    }
+
+    // Writes the given keys, private parts included, to the key file as a JWK Set document.
+    private void writeKeys(Jwk<?>... keys) throws IOException {
+        String jwks = Arrays.stream(keys).map(Jwks::UNSAFE_JSON).collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        Files.writeString(keysFile, jwks);
+    }
+}
@@ -0,0 +1,71 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.dto.BulkRegistrationResultDTO;
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.repository.UserRepository;
+import com.debankar.rbac_project.security.BoundedPasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * This class contains integration tests of BulkRegistrationService against the database.
+ */
+// Its own database: each application context recreates the schema, under the ids already pooled by other contexts.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulk-registration")
+public class BulkRegistrationIntegrationTest {
+
+    @Autowired
+    private BulkRegistrationService bulkRegistrationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean     // Wraps the BoundedPasswordEncoder bean, so that a registration can race a chunk while it is hashed.
+    private BoundedPasswordEncoder passwordEncoder;
+
+    /**
+     * Test case to verify that an email registered by a single registration between the check and the insert of a chunk
+     * is reported as rejected, while the rest of the chunk is registered.
+     */
+    @Test
+    public void registerUsers_RaceWithSingleRegistration() {
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                userService.registerUser(userDTO("racer", "raced@example.com"));
+            }
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encodeAll(anyList());
+
+        BulkRegistrationResultDTO result = bulkRegistrationService.registerUsers(List.of(
+                userDTO("bulkAlice", "bulk-alice@example.com"),
+                userDTO("bulkRaced", "raced@example.com")).iterator());
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getRejected().size());
+        assertEquals(1, result.getRejected().get(0).getIndex());
+        assertEquals("Email already exists!", result.getRejected().get(0).getReason());
+        assertTrue(userRepository.findByEmail("bulk-alice@example.com").isPresent());
+        assertEquals("racer", userRepository.findByEmail("raced@example.com").orElseThrow().getUsername());
+    }
+
+    private UserCreationDTO userDTO(String username, String email) {
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername(username);
+        userDTO.setEmail(email);
+        userDTO.setPassword("password123");
+        return userDTO;
+    }
+}
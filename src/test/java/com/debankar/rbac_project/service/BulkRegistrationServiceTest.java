@@ -0,0 +1,158 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.dto.BulkRegistrationResultDTO;
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.mapper.UserMapper;
+import com.debankar.rbac_project.repository.UserRepository;
+import com.debankar.rbac_project.security.BoundedPasswordEncoder;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the BulkRegistrationService class.
+ */
+public class BulkRegistrationServiceTest {
+
+    @Mock   // Creates a mock instance of UserRepository for testing.
+    private UserRepository userRepository;
+
+    @Mock   // Creates a mock instance of BoundedPasswordEncoder for testing.
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Mock   // Creates a mock instance of CustomUserDetailsService for testing.
+    private CustomUserDetailsService userDetailsService;
+
+    private BulkRegistrationService bulkRegistrationService;
+
+    /** Setting up the necessary context before each test case. */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.openMocks(this);     // This initializes mocks annotated with @Mock
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        bulkRegistrationService = new BulkRegistrationService(
+                userRepository, passwordEncoder, new UserMapper(), validator, userDetailsService, 2);
+
+        when(passwordEncoder.encodeAll(anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArgument(0))
+                .stream().map(password -> "encoded-" + password).toList());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+    }
+
+    /**
+     * Test case to verify that valid records are registered in chunks, with encoded passwords
+     * and the default USER role when none is given.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void registerUsers_Success() {
+        List<UserCreationDTO> userDTOs = List.of(
+                userDTO("alice", "alice@example.com", Set.of(Role.ADMIN)),
+                userDTO("bob", "bob@example.com", null),
+                userDTO("carol", "carol@example.com", null));
+
+        BulkRegistrationResultDTO result = bulkRegistrationService.registerUsers(userDTOs.iterator());
+
+        assertEquals(3, result.getCreated());
+        assertTrue(result.getRejected().isEmpty());
+
+        ArgumentCaptor<List<User>> savedUsers = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(2)).saveAll(savedUsers.capture());    // Two chunks of at most two users.
+        User bob = savedUsers.getAllValues().get(0).get(1);
+        assertEquals("encoded-password123", bob.getPassword());
+        assertEquals(Set.of(Role.USER), bob.getRoles());
+    }
+
+    /**
+     * Test case to verify that invalid records, emails repeated within the request and already registered emails
+     * are rejected with their position in the request, while the remaining records are registered.
+     */
+    @Test
+    public void registerUsers_RejectsInvalidAndDuplicateRecords() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+        List<UserCreationDTO> userDTOs = List.of(
+                userDTO("alice", "alice@example.com", null),
+                userDTO("x", "not-an-email", null),
+                userDTO("alice2", "alice@example.com", null),
+                userDTO("taken", "taken@example.com", null));
+
+        BulkRegistrationResultDTO result = bulkRegistrationService.registerUsers(userDTOs.iterator());
+
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of(1, 2, 3), result.getRejected().stream().map(BulkRegistrationResultDTO.Rejection::getIndex).toList());
+        assertEquals("Duplicate email in request", result.getRejected().get(1).getReason());
+        assertEquals("Email already exists!", result.getRejected().get(2).getReason());
+        verify(passwordEncoder).encodeAll(List.of("password123"));
+    }
+
+    /**
+     * Test case to verify that when an email is registered concurrently between the check and the insert of a chunk,
+     * its record is rejected and the rest of the chunk is registered on retry with fresh entities.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void registerUsers_ConcurrentlyRegisteredEmailRejected() {
+        when(userRepository.findExistingEmails(anyCollection()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("raced@example.com"));
+        when(userRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Unique index or primary key violation"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        List<UserCreationDTO> userDTOs = List.of(
+                userDTO("alice", "alice@example.com", null),
+                userDTO("raced", "raced@example.com", null));
+
+        BulkRegistrationResultDTO result = bulkRegistrationService.registerUsers(userDTOs.iterator());
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getRejected().size());
+        assertEquals(1, result.getRejected().get(0).getIndex());
+        assertEquals("Email already exists!", result.getRejected().get(0).getReason());
+
+        ArgumentCaptor<List<User>> savedUsers = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(2)).saveAll(savedUsers.capture());
+        List<User> retried = savedUsers.getAllValues().get(1);
+        assertEquals(List.of("alice@example.com"), retried.stream().map(User::getEmail).toList());
+        assertNotSame(savedUsers.getAllValues().get(0).get(0), retried.get(0));
+        assertEquals("encoded-password123", retried.get(0).getPassword());
+        verify(passwordEncoder, times(1)).encodeAll(anyList());     // Passwords are not hashed again on retry.
+        verify(userDetailsService, never()).evict("raced@example.com");
+    }
+
+    /**
+     * Test case to verify that a constraint violation not caused by a concurrently registered email is not retried.
+     */
+    @Test
+    public void registerUsers_OtherViolationNotRetried() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("Value too long");
+        when(userRepository.saveAll(anyList())).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> bulkRegistrationService
+                .registerUsers(List.of(userDTO("alice", "alice@example.com", null)).iterator())));
+        verify(userRepository, times(1)).saveAll(anyList());
+    }
+
+    // Creates a user record with a valid password.
+    private UserCreationDTO userDTO(String username, String email, Set<Role> roles) {
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername(username);
+        userDTO.setEmail(email);
+        userDTO.setPassword("password123");
+        userDTO.setRoles(roles);
+        return userDTO;
+    }
+}
@@ -0,0 +1,133 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.entity.User;
+import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the CustomUserDetailsService class.
+ */
+public class CustomUserDetailsServiceTest {
+
+    @Mock   // Creates a mock instance of UserRepository for testing.
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    private User user;
+
+    /** Setting up the necessary context before each test case. */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);     // This initializes mocks annotated with @Mock
+        userDetailsService = new CustomUserDetailsService(userRepository, 100, Duration.ofMinutes(5));
+
+        // Setting up a User entity for testing.
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+        user.setRoles(Set.of(Role.USER, Role.MODERATOR));
+    }
+
+    /**
+     * Test case to verify that user details are loaded with the user's roles as authorities,
+     * and that repeated requests for the same email are served from the cache.
+     */
+    @Test
+    public void loadUserByUsername_CachesUserDetails() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername(user.getEmail());
+        UserDetails second = userDetailsService.loadUserByUsername(user.getEmail());
+
+        assertEquals("test@example.com", first.getUsername());
+        assertEquals(2, first.getAuthorities().size());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByEmail(user.getEmail());
+        assertEquals(1, userDetailsService.getCacheStats().hitCount());
+        assertEquals(1, userDetailsService.getCacheStats().missCount());
+    }
+
+    /**
+     * Test case to verify that evicting an email makes the next request load the user details again,
+     * so that changes to the user's roles or password become visible.
+     */
+    @Test
+    public void evict_ReloadsUserDetails() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername(user.getEmail());
+        userDetailsService.evict(user.getEmail());
+        userDetailsService.loadUserByUsername(user.getEmail());
+
+        verify(userRepository, times(2)).findByEmail(user.getEmail());
+    }
+
+    /**
+     * Test case to verify behavior when no user exists with the given email.
+     * This test ensures that a UsernameNotFoundException is thrown, and that the failure is not cached.
+     */
+    @Test
+    public void loadUserByUsername_UserNotFound() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(user.getEmail()));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(user.getEmail()));
+
+        verify(userRepository, times(2)).findByEmail(user.getEmail());
+    }
+
+    /**
+     * Test case to verify that many concurrent requests missing the cache for the same email
+     * result in a single load from the repository.
+     */
+    @Test
+    public void loadUserByUsername_ConcurrentMissesLoadOnce() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(userRepository.findByEmail(user.getEmail())).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await();
+            return Optional.of(user);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> userDetailsService.loadUserByUsername(user.getEmail())));
+            }
+            loadStarted.await();
+            releaseLoad.countDown();
+
+            for (Future<UserDetails> result : results) {
+                assertEquals("test@example.com", result.get().getUsername());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(userRepository, times(1)).findByEmail(user.getEmail());
+    }
+}
@@ -1,7 +1,12 @@
 package com.debankar.rbac_project.service;
 
+import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.entity.token.Token;
+import com.debankar.rbac_project.enums.TokenType;
 import com.debankar.rbac_project.repository.TokenRepository;
+import com.debankar.rbac_project.security.AuthMetrics;
+import com.debankar.rbac_project.security.TokenDigest;
+import com.debankar.rbac_project.security.TokenRevocationIndex;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,9 +16,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.Authentication;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -28,6 +36,12 @@ public class LogoutServiceTest {
     @Mock   // Creates a mock instance of TokenRepository for testing.
     private TokenRepository tokenRepository;
 
+    @Mock   // Creates a mock instance of TokenRevocationIndex for testing.
+    private TokenRevocationIndex tokenRevocationIndex;
+
+    @Mock   // Creates a mock instance of AuthMetrics for testing.
+    private AuthMetrics authMetrics;
+
     @Mock   // Creates a mock instance of HttpServletRequest for testing.
     private HttpServletRequest request;
 
@@ -44,23 +58,31 @@ public class LogoutServiceTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        User user = new User();
+        user.setId(1L);
         tokenEntity = new Token();
-        tokenEntity.setToken(validToken);
+        tokenEntity.setUser(user);
+        tokenEntity.setTokenType(TokenType.BEARER);
+        tokenEntity.setTokenHash(TokenDigest.of(validToken).toBytes());
         tokenEntity.setExpired(false);
         tokenEntity.setRevoked(false);
+        tokenEntity.setExpiresAt(Instant.now().plus(Duration.ofHours(1)));
     }
 
     /**
      * Test case to verify successful logout functionality.
      * This test checks that when a valid Bearer token is provided,
      * the service correctly marks the token as expired and revoked,
-     * and that it saves these changes to the repository.
+     * that it saves these changes to the repository,
+     * that it records the revocation in the in-memory revocation index,
+     * and that it revokes the user's refresh tokens.
      */
     @Test
     public void logout_Success() {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(tokenRepository.findByToken(validToken)).thenReturn(Optional.of(tokenEntity));
+        when(tokenRepository.findByTokenHash(aryEq(TokenDigest.of(validToken).toBytes())))
+                .thenReturn(Optional.of(tokenEntity));
 
         // Act
         logoutService.logout(request, response, authentication);
@@ -69,6 +91,31 @@ public class LogoutServiceTest {
         assertTrue(tokenEntity.isExpired());
         assertTrue(tokenEntity.isRevoked());
         verify(tokenRepository).save(tokenEntity);
+        verify(tokenRevocationIndex).revoke(TokenDigest.of(validToken), tokenEntity.getExpiresAt());
+        verify(tokenRepository).revokeAllValidTokensByUserIdAndTokenType(1L, TokenType.REFRESH);
+    }
+
+    /**
+     * Test case to verify logout with a refresh token, as done once the access token has expired.
+     * This test checks that the refresh token and the user's other refresh tokens are revoked,
+     * and that the in-memory revocation index, which only holds access tokens, is left untouched.
+     */
+    @Test
+    public void logout_WithRefreshToken() {
+        // Arrange
+        tokenEntity.setTokenType(TokenType.REFRESH);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
+        when(tokenRepository.findByTokenHash(aryEq(TokenDigest.of(validToken).toBytes())))
+                .thenReturn(Optional.of(tokenEntity));
+
+        // Act
+        logoutService.logout(request, response, authentication);
+
+        // Assert
+        assertTrue(tokenEntity.isRevoked());
+        verify(tokenRepository).save(tokenEntity);
+        verify(tokenRepository).revokeAllValidTokensByUserIdAndTokenType(1L, TokenType.REFRESH);
+        verify(tokenRevocationIndex, never()).revoke(any(), any());
     }
 
     /**
@@ -86,7 +133,7 @@ public class LogoutServiceTest {
         logoutService.logout(request, response, authentication);
 
         // Assert: No interaction with tokenRepository should occur
-        verify(tokenRepository, never()).findByToken(any());
+        verify(tokenRepository, never()).findByTokenHash(any());
     }
 
     /**
@@ -104,7 +151,7 @@ public class LogoutServiceTest {
         logoutService.logout(request, response, authentication);
 
         // Assert: No interaction with tokenRepository should occur
-        verify(tokenRepository, never()).findByToken(any());
+        verify(tokenRepository, never()).findByTokenHash(any());
     }
 
     /**
@@ -117,12 +164,14 @@ public class LogoutServiceTest {
     public void logout_TokenNotFound() {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(tokenRepository.findByToken(validToken)).thenReturn(Optional.empty());
+        when(tokenRepository.findByTokenHash(aryEq(TokenDigest.of(validToken).toBytes())))
+                .thenReturn(Optional.empty());
 
         // Act
         logoutService.logout(request, response, authentication);
 
         // Assert: No changes to the token entity and no save call should occur
         verify(tokenRepository, never()).save(any());
+        verify(tokenRevocationIndex, never()).revoke(any(), any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.repository.TokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the TokenPurgeService class.
+ */
+public class TokenPurgeServiceTest {
+
+    @Mock   // Creates a mock instance of TokenRepository for testing.
+    private TokenRepository tokenRepository;
+
+    private TokenPurgeService tokenPurgeService;
+
+    /** Setting up the necessary context before each test case. */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);     // This initializes mocks annotated with @Mock
+        tokenPurgeService = new TokenPurgeService(tokenRepository, 2, 1_000_000, Duration.ZERO);
+    }
+
+    /**
+     * Test case to verify that expired tokens are deleted in batches of the configured size,
+     * and that the pass stops once a batch comes back short.
+     */
+    @Test
+    public void purgeExpiredTokens_DeletesInBatches() {
+        when(tokenRepository.findIdsExpiredBefore(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+
+        int deleted = tokenPurgeService.purgeExpiredTokens();
+
+        assertEquals(3, deleted);
+        verify(tokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(tokenRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(tokenRepository, times(2)).findIdsExpiredBefore(any(Instant.class), any(Pageable.class));
+    }
+
+    /**
+     * Test case to verify behavior when no token has expired.
+     * This test ensures that nothing is deleted.
+     */
+    @Test
+    public void purgeExpiredTokens_NothingExpired() {
+        when(tokenRepository.findIdsExpiredBefore(any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+
+        int deleted = tokenPurgeService.purgeExpiredTokens();
+
+        assertEquals(0, deleted);
+        verify(tokenRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    /**
+     * Test case to verify that a zero or negative batch size or deletion rate is rejected at construction.
+     */
+    @Test
+    public void constructor_RejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenPurgeService(tokenRepository, 2, 0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenPurgeService(tokenRepository, 0, 1_000, Duration.ZERO));
+    }
+}
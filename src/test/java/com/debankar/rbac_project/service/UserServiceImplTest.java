@@ -1,25 +1,39 @@
 package com.debankar.rbac_project.service;
 
+import com.debankar.rbac_project.dto.TokenPairDTO;
 import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.dto.UserPageDTO;
+import com.debankar.rbac_project.dto.UserSummaryDTO;
 import com.debankar.rbac_project.entity.User;
 import com.debankar.rbac_project.entity.token.Token;
 import com.debankar.rbac_project.enums.Role;
+import com.debankar.rbac_project.enums.TokenType;
 import com.debankar.rbac_project.mapper.UserMapper;
 import com.debankar.rbac_project.repository.TokenRepository;
 import com.debankar.rbac_project.repository.UserRepository;
+import com.debankar.rbac_project.security.AuthMetrics;
+import com.debankar.rbac_project.security.IssuedToken;
 import com.debankar.rbac_project.security.JwtTokenProvider;
+import com.debankar.rbac_project.security.PasswordHashingRejectedException;
+import com.debankar.rbac_project.security.RevocationEpochs;
+import com.debankar.rbac_project.security.TokenDigest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -46,10 +60,23 @@ public class UserServiceImplTest {
     @Mock   // Creates a mock instance of JwtTokenProvider for testing.
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock   // Creates a mock instance of RevocationEpochs for testing.
+    private RevocationEpochs revocationEpochs;
+
+    @Mock   // Creates a mock instance of CustomUserDetailsService for testing.
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock   // Creates a mock instance of AuthMetrics for testing.
+    private AuthMetrics authMetrics;
+
     private UserCreationDTO userCreationDTO;
 
     private User user;
 
+    private IssuedToken issuedToken;
+
+    private IssuedToken issuedRefreshToken;
+
     /** Setting up the necessary context before each test case. */
     @BeforeEach
     public void setup() {
@@ -69,6 +96,12 @@ public class UserServiceImplTest {
         user.setEmail("test@example.com");
         user.setPassword("encodedPassword");
         user.setRoles(Set.of(Role.USER));
+
+        // Setting up a token issued by the mocked JwtTokenProvider.
+        Instant now = Instant.now();
+        issuedToken = new IssuedToken("jwtToken", now, now.plus(Duration.ofHours(1)));
+        issuedRefreshToken = new IssuedToken("refreshToken", now, now.plus(Duration.ofDays(7)));
+        when(jwtTokenProvider.issueRefreshToken()).thenReturn(issuedRefreshToken);
     }
 
     /**
@@ -86,7 +119,7 @@ public class UserServiceImplTest {
         when(userMapper.toUser(userCreationDTO)).thenReturn(user);
         when(passwordEncoder.encode(userCreationDTO.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(jwtTokenProvider.generateToken(user.getEmail())).thenReturn("jwtToken");
+        when(jwtTokenProvider.issueToken(eq(user), anyMap())).thenReturn(issuedToken);
 
         User registeredUser = userService.registerUser(userCreationDTO);
 
@@ -94,6 +127,7 @@ public class UserServiceImplTest {
         assertEquals("testUser", registeredUser.getUsername());
         verify(userRepository).save(any(User.class));
         verify(tokenRepository).save(any(Token.class));
+        verify(userDetailsService).evict(user.getEmail());
     }
 
     /**
@@ -116,19 +150,92 @@ public class UserServiceImplTest {
      * Test case to verify successful authentication of a user.
      * This test checks that when valid credentials are provided,
      * the service retrieves the corresponding user, verifies the password,
-     * and generates a JWT token. It ensures that authentication works as intended
-     * and that a token is created for valid users.
+     * and generates a JWT token and a refresh token. It ensures that authentication works as intended
+     * and that both tokens are stored for valid users.
      */
     @Test
     public void authenticate_Success() {
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtTokenProvider.generateToken(user.getEmail())).thenReturn("jwtToken");
+        when(jwtTokenProvider.issueToken(eq(user), anyMap())).thenReturn(issuedToken);
 
-        String jwtToken = userService.authenticate(user.getEmail(), "password123");
+        TokenPairDTO tokens = userService.authenticate(user.getEmail(), "password123");
 
-        assertEquals("jwtToken", jwtToken);
-        verify(tokenRepository).save(any(Token.class));
+        assertEquals("jwtToken", tokens.getAccessToken());
+        assertEquals("refreshToken", tokens.getRefreshToken());
+        verify(tokenRepository).saveAll(argThat(savedTokens -> savedTokens.spliterator().getExactSizeIfKnown() == 2));
+    }
+
+    /**
+     * Test case to verify that a successful login against an outdated password hash
+     * stores a new hash computed with the current parameters, and drops the cached user details.
+     */
+    @Test
+    public void authenticate_UpgradesOutdatedHash() {
+        user.setPassword("$2a$04$outdatedHash");
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "$2a$04$outdatedHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$04$outdatedHash")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}$2a$12$currentHash");
+        when(jwtTokenProvider.issueToken(eq(user), anyMap())).thenReturn(issuedToken);
+
+        userService.authenticate(user.getEmail(), "password123");
+
+        assertEquals("{bcrypt}$2a$12$currentHash", user.getPassword());
+        verify(userRepository).save(user);
+        verify(userDetailsService).evict(user.getEmail());
+    }
+
+    /**
+     * Test case to verify that a login still succeeds, keeping the outdated hash,
+     * when the password cannot be rehashed because the hashing executor is saturated.
+     */
+    @Test
+    public void authenticate_SkipsHashUpgradeWhenHashingIsSaturated() {
+        user.setPassword("$2a$04$outdatedHash");
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "$2a$04$outdatedHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$04$outdatedHash")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenThrow(new PasswordHashingRejectedException("busy", Duration.ofSeconds(1)));
+        when(jwtTokenProvider.issueToken(eq(user), anyMap())).thenReturn(issuedToken);
+
+        assertEquals("jwtToken", userService.authenticate(user.getEmail(), "password123").getAccessToken());
+
+        assertEquals("$2a$04$outdatedHash", user.getPassword());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    /**
+     * Test case to verify that a login shed because the hashing executor is saturated is recorded as rejected
+     * before the exception reaches the caller.
+     */
+    @Test
+    public void authenticate_RecordsRejectedWhenHashingIsSaturated() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "encodedPassword"))
+                .thenThrow(new PasswordHashingRejectedException("busy", Duration.ofSeconds(1)));
+
+        assertThrows(PasswordHashingRejectedException.class, () -> userService.authenticate(user.getEmail(), "password123"));
+
+        verify(authMetrics).recordServiceOutcome(eq(AuthMetrics.Operation.LOGIN), eq("rejected"), anyLong());
+        verify(tokenRepository, never()).saveAll(anyList());
+    }
+
+    /**
+     * Test case to verify that a registration shed because the hashing executor is saturated is recorded as rejected,
+     * and that no user is saved.
+     */
+    @Test
+    public void registerUser_RecordsRejectedWhenHashingIsSaturated() {
+        when(userRepository.existsByEmail(userCreationDTO.getEmail())).thenReturn(false);
+        when(userMapper.toUser(userCreationDTO)).thenReturn(user);
+        when(passwordEncoder.encode(userCreationDTO.getPassword()))
+                .thenThrow(new PasswordHashingRejectedException("busy", Duration.ofSeconds(1)));
+
+        assertThrows(PasswordHashingRejectedException.class, () -> userService.registerUser(userCreationDTO));
+
+        verify(authMetrics).recordServiceOutcome(eq(AuthMetrics.Operation.REGISTRATION), eq("rejected"), anyLong());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     /**
@@ -146,6 +253,61 @@ public class UserServiceImplTest {
         });
 
         assertEquals("Invalid email or password!", exception.getMessage());
+        verify(authMetrics).recordServiceOutcome(eq(AuthMetrics.Operation.LOGIN), eq("invalid-credentials"), anyLong());
+        verify(passwordEncoder, never()).matches(anyString(), anyString());     // Unknown emails are not hashed.
+    }
+
+    /**
+     * Test case to verify that a refresh token is exchanged for a new access token and a new refresh token,
+     * and that the refresh token used is revoked so that it cannot be used again.
+     */
+    @Test
+    public void refresh_Success() {
+        Token storedRefreshToken = refreshTokenEntity("oldRefreshToken", issuedRefreshToken.getExpiresAt());
+        when(tokenRepository.revokeIfValid(7L)).thenReturn(1);
+        when(jwtTokenProvider.issueToken(eq(user), anyMap())).thenReturn(issuedToken);
+
+        TokenPairDTO tokens = userService.refresh("oldRefreshToken");
+
+        assertEquals("jwtToken", tokens.getAccessToken());
+        assertEquals("refreshToken", tokens.getRefreshToken());
+        verify(tokenRepository).revokeIfValid(storedRefreshToken.getId());
+        verify(revocationEpochs, never()).revokeUser(any());
+    }
+
+    /**
+     * Test case to verify that presenting a refresh token that was already used
+     * revokes all of the user's tokens and issues no new ones.
+     */
+    @Test
+    public void refresh_ReusedTokenRevokesAllTokens() {
+        refreshTokenEntity("oldRefreshToken", issuedRefreshToken.getExpiresAt());
+        when(tokenRepository.revokeIfValid(7L)).thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh("oldRefreshToken"));
+
+        verify(revocationEpochs).revokeUser(user);
+        verify(tokenRepository).revokeAllValidTokensByUserIdAndTokenType(1L, TokenType.REFRESH);
+        verify(jwtTokenProvider, never()).issueToken(any(User.class), anyMap());
+        verify(authMetrics).recordServiceOutcome(eq(AuthMetrics.Operation.REFRESH), eq("reused"), anyLong());
+    }
+
+    /**
+     * Test case to verify that expired refresh tokens, unknown tokens and access tokens are rejected
+     * without revoking anything.
+     */
+    @Test
+    public void refresh_InvalidToken() {
+        refreshTokenEntity("expiredRefreshToken", Instant.now().minusSeconds(1));
+        Token accessToken = refreshTokenEntity("jwtToken", issuedToken.getExpiresAt());
+        accessToken.setTokenType(TokenType.BEARER);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh("expiredRefreshToken"));
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh("unknownToken"));
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh("jwtToken"));
+
+        verify(tokenRepository, never()).revokeIfValid(anyLong());
+        verify(revocationEpochs, never()).revokeUser(any());
     }
 
     /**
@@ -198,7 +360,140 @@ public class UserServiceImplTest {
         assertEquals(1, foundUsers.size());
         assertEquals("testUser", foundUsers.get(0).getUsername());
     }
-}
 
+    /**
+     * Test case to verify that a user's roles can be replaced.
+     * This test checks that the new roles are saved and that all tokens previously issued to the user
+     * are revoked, so that no token carrying the old roles can still be used.
+     */
+    @Test
+    public void updateRoles_Success() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        User updatedUser = userService.updateRoles(1L, Set.of(Role.MODERATOR));
+
+        assertEquals(Set.of(Role.MODERATOR), updatedUser.getRoles());
+        verify(revocationEpochs).revokeUser(user);
+        verify(tokenRepository).revokeAllValidTokensByUserIdAndTokenType(1L, TokenType.REFRESH);
+        verify(userDetailsService).evict(user.getEmail());
+    }
+
+    /**
+     * Test case to verify behavior when attempting to remove all roles of a user.
+     * This test ensures that an IllegalArgumentException is thrown and that the user is not modified.
+     */
+    @Test
+    public void updateRoles_EmptyRoles() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.updateRoles(1L, Set.of());
+        });
+
+        assertEquals("At least one role is required!", exception.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
 
+    /**
+     * Test case to verify that a user can be signed out everywhere.
+     * This test checks that the user's access tokens are revoked at once by advancing the user's token version,
+     * and that the user's refresh tokens are revoked with a single bulk update, whose count is returned.
+     */
+    @Test
+    public void signOutEverywhere_Success() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(tokenRepository.revokeAllValidTokensByUserIdAndTokenType(1L, TokenType.REFRESH)).thenReturn(2);
+
+        int revokedCount = userService.signOutEverywhere(1L);
 
+        assertEquals(2, revokedCount);
+        verify(revocationEpochs).revokeUser(user);
+    }
+
+    /**
+     * Test case to verify that every user with a role can be signed out everywhere.
+     * This test checks that their access tokens are revoked at once by advancing the role's epoch,
+     * and that their refresh tokens are revoked with a single bulk update.
+     */
+    @Test
+    public void signOutRole_Success() {
+        when(tokenRepository.revokeAllValidTokensByRoleAndTokenType(Role.MODERATOR, TokenType.REFRESH)).thenReturn(3);
+
+        int revokedCount = userService.signOutRole(Role.MODERATOR);
+
+        assertEquals(3, revokedCount);
+        verify(revocationEpochs).revokeRole(Role.MODERATOR);
+        verify(revocationEpochs, never()).revokeUser(any());
+    }
+
+    /**
+     * Test case to verify that a full page of users is returned with each user's roles,
+     * and with the id of its last user as the cursor for the next page.
+     */
+    @Test
+    public void findPage_FullPage() {
+        List<UserSummaryDTO> users = List.of(
+                new UserSummaryDTO(11L, "alice", "alice@example.com"),
+                new UserSummaryDTO(12L, "bob", "bob@example.com"));
+        when(userRepository.findPageAfter(10L, PageRequest.of(0, 2))).thenReturn(users);
+        List<UserRepository.UserRole> roles = List.of(
+                userRole(11L, Role.ADMIN), userRole(11L, Role.USER), userRole(12L, Role.USER));
+        when(userRepository.findRolesByUserIds(List.of(11L, 12L))).thenReturn(roles);
+        when(userMapper.toUserDTO(any(UserSummaryDTO.class), anySet())).thenCallRealMethod();
+
+        UserPageDTO page = userService.findPage(10L, 2, null);
+
+        assertEquals(2, page.getUsers().size());
+        assertEquals(Set.of(Role.ADMIN, Role.USER), page.getUsers().get(0).getRoles());
+        assertEquals(Set.of(Role.USER), page.getUsers().get(1).getRoles());
+        assertEquals(12L, page.getNextCursor());
+    }
+
+    /**
+     * Test case to verify that a page shorter than the limit is treated as the last page,
+     * that the role filter is applied, and that oversized limits are capped.
+     */
+    @Test
+    public void findPage_LastPageWithRoleFilter() {
+        Pageable cappedPage = PageRequest.of(0, UserService.MAX_PAGE_SIZE);
+        when(userRepository.findPageAfterWithRole(0L, Role.MODERATOR, cappedPage))
+                .thenReturn(List.of(new UserSummaryDTO(3L, "carol", "carol@example.com")));
+        List<UserRepository.UserRole> roles = List.of(userRole(3L, Role.MODERATOR));
+        when(userRepository.findRolesByUserIds(List.of(3L))).thenReturn(roles);
+        when(userMapper.toUserDTO(any(UserSummaryDTO.class), anySet())).thenCallRealMethod();
+
+        UserPageDTO page = userService.findPage(null, 5000, Role.MODERATOR);
+
+        assertEquals(1, page.getUsers().size());
+        assertNull(page.getNextCursor());
+        verify(userRepository, never()).findPageAfter(anyLong(), any());
+    }
+
+    /**
+     * Test case to verify that a page size below one is rejected.
+     */
+    @Test
+    public void findPage_InvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> userService.findPage(null, 0, null));
+    }
+
+    // Creates a (user id, role) projection row as returned by the user repository.
+    private UserRepository.UserRole userRole(Long userId, Role role) {
+        UserRepository.UserRole userRole = mock(UserRepository.UserRole.class);
+        when(userRole.getUserId()).thenReturn(userId);
+        when(userRole.getRole()).thenReturn(role);
+        return userRole;
+    }
+
+    // Stubs the token repository so that the given refresh token of the test user (with id 7) is found by its digest.
+    private Token refreshTokenEntity(String tokenValue, Instant expiresAt) {
+        Token token = Token.builder()
+                .id(7L)
+                .user(user)
+                .tokenHash(TokenDigest.of(tokenValue).toBytes())
+                .tokenType(TokenType.REFRESH)
+                .expiresAt(expiresAt)
+                .build();
+        when(tokenRepository.findByTokenHash(aryEq(TokenDigest.of(tokenValue).toBytes()))).thenReturn(Optional.of(token));
+        return token;
+    }
+}
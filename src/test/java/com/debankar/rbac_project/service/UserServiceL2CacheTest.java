@@ -0,0 +1,49 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains integration tests of UserServiceImpl with the second-level cache of the l2cache profile.
+ */
+// Its own database: each application context recreates the schema, under the ids already pooled by other contexts.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:l2cache")
+@ActiveProfiles("l2cache")
+public class UserServiceL2CacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Test case to verify that each login finds the user by email in the natural-id cache, i.e. that revoking the
+     * user's earlier tokens on login does not evict the cached users.
+     */
+    @Test
+    public void authenticate_HitsNaturalIdCacheAcrossLogins() {
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername("cachedUser");
+        userDTO.setEmail("cached@example.com");
+        userDTO.setPassword("password123");
+        userService.registerUser(userDTO);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userService.authenticate("cached@example.com", "password123");
+        long hits = statistics.getNaturalIdCacheHitCount();
+
+        for (int login = 1; login <= 3; login++) {
+            userService.authenticate("cached@example.com", "password123");
+            assertEquals(hits + login, statistics.getNaturalIdCacheHitCount());
+        }
+    }
+}
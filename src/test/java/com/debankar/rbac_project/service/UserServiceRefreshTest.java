@@ -0,0 +1,49 @@
+package com.debankar.rbac_project.service;
+
+import com.debankar.rbac_project.dto.TokenPairDTO;
+import com.debankar.rbac_project.dto.UserCreationDTO;
+import com.debankar.rbac_project.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * This class contains integration tests of the refresh token rotation of UserServiceImpl against the database.
+ */
+// Its own database: each application context recreates the schema, under the ids already pooled by other contexts.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:refresh")
+public class UserServiceRefreshTest {
+
+    @Autowired
+    private UserService userService;
+
+    @MockitoSpyBean     // Wraps the JwtTokenProvider bean, so that issuing a token can be made to fail.
+    private JwtTokenProvider jwtTokenProvider;
+
+    /**
+     * Test case to verify that a refresh failing to issue the new tokens does not consume the presented refresh token,
+     * which can then be exchanged again, and that the revocation of all tokens after its reuse is not rolled back.
+     */
+    @Test
+    public void refresh_FailedIssueKeepsTokenUsable() {
+        UserCreationDTO userDTO = new UserCreationDTO();
+        userDTO.setUsername("refreshUser");
+        userDTO.setEmail("refresh@example.com");
+        userDTO.setPassword("password123");
+        userService.registerUser(userDTO);
+        TokenPairDTO tokens = userService.authenticate("refresh@example.com", "password123");
+
+        doThrow(new IllegalStateException("Signing failed")).doCallRealMethod().when(jwtTokenProvider).issueRefreshToken();
+
+        assertThrows(IllegalStateException.class, () -> userService.refresh(tokens.getRefreshToken()));
+        TokenPairDTO refreshed = userService.refresh(tokens.getRefreshToken());
+
+        assertNotEquals(tokens.getRefreshToken(), refreshed.getRefreshToken());
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh(tokens.getRefreshToken()));
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh(refreshed.getRefreshToken()));
+    }
+}